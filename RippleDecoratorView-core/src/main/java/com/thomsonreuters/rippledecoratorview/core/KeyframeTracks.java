@@ -0,0 +1,256 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Curves for the ripple radius, ripple alpha and highlight alpha over the animation, defined as
+ * keyframes and baked into fixed size sample tables when loaded. Sampling a property on a frame
+ * is a single array lookup, no interpolator runs at draw time.
+ *
+ * Keyframe times and values are in the [0, 1] range. Radius values are multiplied by the ripple
+ * radius, alpha values by the maximum alpha.
+ */
+public final class KeyframeTracks {
+    public static final int TRACK_RADIUS = 0;
+
+    public static final int TRACK_ALPHA = 1;
+
+    public static final int TRACK_HIGHLIGHT = 2;
+
+    private static final int TRACK_COUNT = 3;
+
+    private static final int MAGIC = 0x5244564B;
+
+    private static final int VERSION = 1;
+
+    private final float[][] mSamples = new float[TRACK_COUNT][];
+
+    private final int mSampleCount;
+
+    private KeyframeTracks(int sampleCount) {
+        this.mSampleCount = sampleCount;
+    }
+
+    /**
+     * Reads tracks in the binary form written by {@link Builder#writeTo(OutputStream)}. The
+     * stream is not closed.
+     *
+     * @param inputStream source
+     * @return tracks
+     * @throws IOException if the stream cannot be read or does not contain valid tracks
+     */
+    public static KeyframeTracks readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not keyframe tracks");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported keyframe tracks version " + version);
+        }
+        int sampleCount = in.readUnsignedShort();
+        if (sampleCount < 2) {
+            throw new IOException("Keyframe tracks need at least 2 samples");
+        }
+        KeyframeTracks tracks = new KeyframeTracks(sampleCount);
+        int trackCount = in.readUnsignedByte();
+        for (int t = 0; t < trackCount; t++) {
+            int track = in.readUnsignedByte();
+            int keyframeCount = in.readUnsignedShort();
+            float[] times = new float[keyframeCount];
+            float[] values = new float[keyframeCount];
+            for (int k = 0; k < keyframeCount; k++) {
+                times[k] = in.readFloat();
+                values[k] = in.readFloat();
+            }
+            if (track >= TRACK_COUNT || keyframeCount == 0) {
+                /* Unknown or empty tracks are skipped */
+                continue;
+            }
+            String error = checkKeyframes(times, values);
+            if (error != null) {
+                throw new IOException("Track " + track + ": " + error);
+            }
+            tracks.mSamples[track] = bake(times, values, sampleCount);
+        }
+        return tracks;
+    }
+
+    /**
+     * @return what is wrong with the keyframes, or null if they are valid
+     */
+    private static String checkKeyframes(float[] times, float[] values) {
+        for (int k = 0; k < times.length; k++) {
+            /* Negated so NaN fails too */
+            if (!(times[k] >= 0.0F && times[k] <= 1.0F)) {
+                return "Keyframe time " + times[k] + " out of [0, 1]";
+            }
+            if (!(values[k] >= 0.0F && values[k] <= 1.0F)) {
+                return "Keyframe value " + values[k] + " out of [0, 1]";
+            }
+            if (k > 0 && times[k] < times[k - 1]) {
+                return "Keyframe times need to be ascending";
+            }
+        }
+        return null;
+    }
+
+    private static float[] bake(float[] times, float[] values, int sampleCount) {
+        float[] samples = new float[sampleCount];
+        int keyframe = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            float time = (float)i / (float)(sampleCount - 1);
+            while (keyframe < times.length - 1 && times[keyframe + 1] <= time) {
+                keyframe++;
+            }
+            if (time <= times[0]) {
+                samples[i] = values[0];
+            } else if (keyframe == times.length - 1) {
+                samples[i] = values[keyframe];
+            } else {
+                float span = times[keyframe + 1] - times[keyframe];
+                float position = span <= 0.0F ? 1.0F : (time - times[keyframe]) / span;
+                samples[i] = values[keyframe] + (values[keyframe + 1] - values[keyframe])
+                        * position;
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Whether a curve is defined for a property.
+     *
+     * @param track TRACK_RADIUS, TRACK_ALPHA or TRACK_HIGHLIGHT
+     * @return true if defined
+     */
+    public boolean hasTrack(int track) {
+        return mSamples[track] != null;
+    }
+
+    /**
+     * Get the value of a property on a frame of the animation.
+     *
+     * @param track TRACK_RADIUS, TRACK_ALPHA or TRACK_HIGHLIGHT
+     * @param frame current frame
+     * @param frames total frames of the animation
+     * @return value [0, 1]
+     */
+    public float sample(int track, int frame, int frames) {
+        int index = (int)((long)frame * (mSampleCount - 1) / frames);
+        return mSamples[track][Math.max(0, Math.min(mSampleCount - 1, index))];
+    }
+
+    /**
+     * Writes keyframe tracks in the binary form read by {@link #readFrom(InputStream)}, to be
+     * stored as a raw resource. Tools building the resource can use it from plain Java.
+     */
+    public static class Builder {
+        private final int mSampleCount;
+
+        private final float[][] mTimes = new float[TRACK_COUNT][];
+
+        private final float[][] mValues = new float[TRACK_COUNT][];
+
+        /**
+         * @param sampleCount size of the tables the keyframes are baked into
+         */
+        public Builder(int sampleCount) {
+            if (sampleCount < 2 || sampleCount > 0xFFFF) {
+                throw new IllegalArgumentException("Sample count needs to be in [2, 65535]");
+            }
+            this.mSampleCount = sampleCount;
+        }
+
+        /**
+         * Defines the curve of a property.
+         *
+         * @param track TRACK_RADIUS, TRACK_ALPHA or TRACK_HIGHLIGHT
+         * @param times keyframe times [0, 1] in ascending order
+         * @param values keyframe values [0, 1]
+         * @return this builder
+         */
+        public Builder setTrack(int track, float[] times, float[] values) {
+            if (track < 0 || track >= TRACK_COUNT) {
+                throw new IllegalArgumentException("Unknown track " + track);
+            }
+            if (times.length == 0 || times.length != values.length) {
+                throw new IllegalArgumentException("Keyframes need as many times as values");
+            }
+            String error = checkKeyframes(times, values);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            mTimes[track] = times.clone();
+            mValues[track] = values.clone();
+            return this;
+        }
+
+        /**
+         * Writes the tracks. The stream is not closed.
+         *
+         * @param outputStream destination
+         * @throws IOException if the stream cannot be written
+         */
+        public void writeTo(OutputStream outputStream) throws IOException {
+            DataOutputStream out = new DataOutputStream(outputStream);
+            int trackCount = 0;
+            for (int t = 0; t < TRACK_COUNT; t++) {
+                if (mTimes[t] != null) {
+                    trackCount++;
+                }
+            }
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeShort(mSampleCount);
+            out.writeByte(trackCount);
+            for (int t = 0; t < TRACK_COUNT; t++) {
+                if (mTimes[t] == null) {
+                    continue;
+                }
+                out.writeByte(t);
+                out.writeShort(mTimes[t].length);
+                for (int k = 0; k < mTimes[t].length; k++) {
+                    out.writeFloat(mTimes[t][k]);
+                    out.writeFloat(mValues[t][k]);
+                }
+            }
+            out.flush();
+        }
+
+        /**
+         * Bakes the tracks without going through a resource.
+         *
+         * @return tracks
+         */
+        public KeyframeTracks build() {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try {
+                writeTo(outputStream);
+                return readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+            } catch (IOException e) {
+                /* In-memory streams do not fail */
+                throw new IllegalStateException(e.getMessage());
+            }
+        }
+    }
+}
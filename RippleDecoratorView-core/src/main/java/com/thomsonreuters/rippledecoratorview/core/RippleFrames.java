@@ -0,0 +1,156 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview.core;
+
+/**
+ * Per-frame math of the built-in ripple and highlight timeline: both fade in linearly through the
+ * interpolator up to their peak frame and fade out after it, while the ripple grows from the
+ * center to its radius over the whole duration.
+ */
+public final class RippleFrames {
+    private RippleFrames() {
+    }
+
+    /**
+     * Checks the frame settings of an animation.
+     *
+     * @param animationFrames total frames
+     * @param rippleAnimationPeakFrame frame where the ripple is the most opaque
+     * @param highlightAnimation whether the highlight is drawn
+     * @param highlightAnimationPeakFrame frame where the highlight is the most opaque
+     * @throws IllegalArgumentException if there are no frames or a peak is past the last frame
+     */
+    public static void validateAnimation(int animationFrames, int rippleAnimationPeakFrame,
+            boolean highlightAnimation, int highlightAnimationPeakFrame) {
+        if (animationFrames <= 0) {
+            throw new IllegalArgumentException("Animation frames need to be higher than 0");
+        }
+        if ((highlightAnimation && highlightAnimationPeakFrame > animationFrames)
+                || rippleAnimationPeakFrame > animationFrames) {
+            throw new IllegalArgumentException("Peak frames cannot be higher than total frames");
+        }
+    }
+
+    /**
+     * Get the planned time between frames.
+     *
+     * @param animationDuration duration in milliseconds
+     * @param animationFrames total frames
+     * @return milliseconds per frame
+     */
+    public static float getFrameDuration(float animationDuration, int animationFrames) {
+        return animationDuration / animationFrames;
+    }
+
+    /**
+     * Get the frame to draw after some time.
+     *
+     * @param elapsedMilliseconds time since the animation started
+     * @param frameDuration milliseconds per frame
+     * @return frame
+     */
+    public static int getFrame(float elapsedMilliseconds, float frameDuration) {
+        return (int)(elapsedMilliseconds / frameDuration);
+    }
+
+    /**
+     * Get the alpha of the highlight on a frame.
+     *
+     * @param currentFrame frame
+     * @param animationFrames total frames
+     * @param highlightAnimationPeakFrame frame where the highlight is the most opaque
+     * @param highlightMaxAlpha alpha on the peak frame [0, 255]
+     * @param interpolator interpolator
+     * @return alpha [0, 255]
+     */
+    public static int getHighlightAlpha(int currentFrame, int animationFrames,
+            int highlightAnimationPeakFrame, float highlightMaxAlpha,
+            RippleInterpolator interpolator) {
+        float position = getFadePosition(currentFrame, animationFrames,
+                highlightAnimationPeakFrame);
+        return (int)(highlightMaxAlpha * interpolator.getInterpolation(position));
+    }
+
+    /**
+     * Get the alpha of the ripple on a frame. On top of the fade, the ripple gets more
+     * transparent as it grows.
+     *
+     * @param currentFrame frame
+     * @param animationFrames total frames
+     * @param rippleAnimationPeakFrame frame where the ripple is the most opaque
+     * @param rippleMaxAlpha alpha on the peak frame [0, 255]
+     * @param frameDuration milliseconds per frame
+     * @param rippleAnimationDuration duration in milliseconds
+     * @param interpolator interpolator
+     * @return alpha [0, 255]
+     */
+    public static int getRippleAlpha(int currentFrame, int animationFrames,
+            int rippleAnimationPeakFrame, float rippleMaxAlpha, float frameDuration,
+            float rippleAnimationDuration, RippleInterpolator interpolator) {
+        float position = getFadePosition(currentFrame, animationFrames, rippleAnimationPeakFrame);
+        int rippleAlpha = (int)(rippleMaxAlpha * interpolator.getInterpolation(position));
+        return (int)(rippleAlpha - rippleAlpha * (((float)currentFrame * frameDuration)
+                / rippleAnimationDuration));
+    }
+
+    private static float getFadePosition(int currentFrame, int animationFrames, int peakFrame) {
+        if (currentFrame - 1 < peakFrame) {
+            return (float)currentFrame / (float)peakFrame;
+        }
+        return 1 - ((float)(currentFrame - peakFrame) / (float)(animationFrames - peakFrame));
+    }
+
+    /**
+     * Get the radius of the ripple on a frame.
+     *
+     * @param rippleRadius radius at the end of the animation
+     * @param frame frame
+     * @param frameDuration milliseconds per frame
+     * @param rippleAnimationDuration duration in milliseconds
+     * @return radius
+     */
+    public static float getRippleRadius(float rippleRadius, int frame, float frameDuration,
+            float rippleAnimationDuration) {
+        return rippleRadius * (((float)frame * frameDuration) / rippleAnimationDuration);
+    }
+
+    /**
+     * Get the frames between the starts of two waves of a ripple train. Waves never start on the
+     * same frame, as overlapping filled waves would cancel each other out.
+     *
+     * @param rippleWaveStagger frames set, negative to spread the waves evenly
+     * @param animationFrames frames each wave lasts
+     * @param rippleWaveCount waves
+     * @return frames, at least 1
+     */
+    public static int getWaveStagger(int rippleWaveStagger, int animationFrames,
+            int rippleWaveCount) {
+        return Math.max(1, rippleWaveStagger < 0 ? animationFrames / rippleWaveCount
+                : rippleWaveStagger);
+    }
+
+    /**
+     * Get the frames of a whole ripple train: every wave lasts the animation frames, the last
+     * one starting after all the staggers.
+     *
+     * @param animationFrames frames each wave lasts
+     * @param rippleWaveCount waves
+     * @param waveStagger frames between the starts of two waves
+     * @return frames
+     */
+    public static int getTrainFrames(int animationFrames, int rippleWaveCount, int waveStagger) {
+        return animationFrames + (rippleWaveCount - 1) * waveStagger;
+    }
+}
@@ -0,0 +1,27 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview.core;
+
+/**
+ * Maps the position in the fade-in or fade-out of the ripple and highlight to the fraction of
+ * their maximum alpha, in the way of an Android interpolator.
+ */
+public interface RippleInterpolator {
+    /**
+     * @param input position [0, 1]
+     * @return fraction of the maximum alpha
+     */
+    float getInterpolation(float input);
+}
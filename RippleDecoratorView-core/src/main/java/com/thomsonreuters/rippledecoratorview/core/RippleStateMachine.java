@@ -0,0 +1,207 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview.core;
+
+/**
+ * Lifecycle of the ripple/highlight animation of one view: which gesture triggers start it, its
+ * timeline from start to end, and ripples started speculatively on touch down, which the tap
+ * either confirms or fades out. Times are System.nanoTime() values passed in by the caller, so
+ * the machine can be driven by a simulated clock. Not thread safe.
+ */
+public final class RippleStateMachine {
+    /* Trigger values, RippleDecoratorView maps its Triggers to them explicitly */
+    public static final int TRIGGER_ON_UP = 0;
+
+    public static final int TRIGGER_ON_DOWN = 1;
+
+    public static final int TRIGGER_ON_TAP = 2;
+
+    public static final int TRIGGER_NONE = 3;
+
+    /** The trigger does not change the animation */
+    public static final int RESOLVED_NONE = 0;
+
+    /** The trigger starts an animation */
+    public static final int RESOLVED_START = 1;
+
+    /** The trigger confirms the animation started speculatively */
+    public static final int RESOLVED_COMMIT = 2;
+
+    public static final float NANOS_TO_MILLIS = 1000000.0F;
+
+    private static final int SPECULATION_NONE = 0;
+
+    private static final int SPECULATION_PENDING = 1;
+
+    private static final int SPECULATION_ABORTED = 2;
+
+    private boolean mIsRunning = false;
+
+    private int mSpeculation = SPECULATION_NONE;
+
+    private long mStartNanoTime = 0L;
+
+    private long mSpeculationAbortNanoTime = 0L;
+
+    /**
+     * Whether a gesture with the view's triggers would start any animation.
+     *
+     * @param rippleTrigger trigger of the ripple
+     * @param zoomAnimation whether zoom is active
+     * @param zoomTrigger trigger of the zoom
+     * @return true if a trigger is set
+     */
+    public static boolean hasTouchTriggers(int rippleTrigger, boolean zoomAnimation,
+            int zoomTrigger) {
+        return rippleTrigger != TRIGGER_NONE || (zoomAnimation && zoomTrigger != TRIGGER_NONE);
+    }
+
+    /**
+     * Whether a trigger starts the zoom.
+     *
+     * @param trigger trigger that happened
+     * @param zoomAnimation whether zoom is active
+     * @param zoomTrigger trigger of the zoom
+     * @return true if zoom starts
+     */
+    public static boolean isZoomTriggered(int trigger, boolean zoomAnimation, int zoomTrigger) {
+        return zoomAnimation && zoomTrigger == trigger;
+    }
+
+    /**
+     * Whether a touch down can start the ripple speculatively.
+     *
+     * @param rippleSpeculative whether speculative starts are active
+     * @param rippleTrigger trigger of the ripple
+     * @return true if the ripple should start now, before the tap is confirmed
+     */
+    public boolean canSpeculate(boolean rippleSpeculative, int rippleTrigger) {
+        return rippleSpeculative && !mIsRunning && rippleTrigger == TRIGGER_ON_TAP;
+    }
+
+    /**
+     * Resolves what a trigger does to the animation. A speculative ripple confirmed by its
+     * trigger stops being speculative.
+     *
+     * @param trigger trigger that happened
+     * @param rippleTrigger trigger of the ripple
+     * @return RESOLVED_NONE, RESOLVED_START or RESOLVED_COMMIT
+     */
+    public int resolve(int trigger, int rippleTrigger) {
+        if (rippleTrigger != trigger) {
+            return RESOLVED_NONE;
+        }
+        if (mSpeculation == SPECULATION_PENDING) {
+            mSpeculation = SPECULATION_NONE;
+            return RESOLVED_COMMIT;
+        }
+        return mIsRunning ? RESOLVED_NONE : RESOLVED_START;
+    }
+
+    /**
+     * Starts an animation, replacing the running one if any.
+     *
+     * @param nanoTime current time
+     * @param speculative true if started on touch down ahead of its tap
+     * @return true if an animation was already running
+     */
+    public boolean start(long nanoTime, boolean speculative) {
+        boolean wasRunning = mIsRunning;
+        mIsRunning = true;
+        mStartNanoTime = nanoTime;
+        mSpeculation = speculative ? SPECULATION_PENDING : SPECULATION_NONE;
+        return wasRunning;
+    }
+
+    /**
+     * Fades out the speculative animation, if any, because the gesture is not a tap.
+     *
+     * @param nanoTime current time
+     */
+    public void abortSpeculation(long nanoTime) {
+        if (mSpeculation == SPECULATION_PENDING) {
+            mSpeculation = SPECULATION_ABORTED;
+            mSpeculationAbortNanoTime = nanoTime;
+        }
+    }
+
+    /**
+     * Stops the animation.
+     *
+     * @return true if an animation was running
+     */
+    public boolean stop() {
+        boolean wasRunning = mIsRunning;
+        mIsRunning = false;
+        mSpeculation = SPECULATION_NONE;
+        mStartNanoTime = 0L;
+        return wasRunning;
+    }
+
+    /**
+     * Whether an animation is running.
+     *
+     * @return true if running
+     */
+    public boolean isRunning() {
+        return this.mIsRunning;
+    }
+
+    /**
+     * Whether the running animation was started speculatively and waits for its tap.
+     *
+     * @return true if pending
+     */
+    public boolean isSpeculationPending() {
+        return mSpeculation == SPECULATION_PENDING;
+    }
+
+    /**
+     * Get the time since the animation started.
+     *
+     * @param nanoTime current time
+     * @return milliseconds
+     */
+    public float getElapsedMilliseconds(long nanoTime) {
+        return (nanoTime - mStartNanoTime) / NANOS_TO_MILLIS;
+    }
+
+    /**
+     * Get the opacity left to an aborted speculative animation.
+     *
+     * @param nanoTime current time
+     * @param fadeDuration milliseconds the fade out lasts
+     * @return 1 if not aborted, down to 0 or less once faded out
+     */
+    public float getSpeculationFade(long nanoTime, float fadeDuration) {
+        if (mSpeculation != SPECULATION_ABORTED) {
+            return 1.0F;
+        }
+        return 1.0F - ((nanoTime - mSpeculationAbortNanoTime) / NANOS_TO_MILLIS) / fadeDuration;
+    }
+
+    /**
+     * Whether the animation reached its end, by duration or by fading out after an abort.
+     *
+     * @param nanoTime current time
+     * @param animationDuration duration in milliseconds
+     * @param fadeDuration milliseconds the fade out of aborted speculations lasts
+     * @return true if ended
+     */
+    public boolean isFinished(long nanoTime, float animationDuration, float fadeDuration) {
+        return animationDuration <= getElapsedMilliseconds(nanoTime)
+                || getSpeculationFade(nanoTime, fadeDuration) <= 0.0F;
+    }
+}
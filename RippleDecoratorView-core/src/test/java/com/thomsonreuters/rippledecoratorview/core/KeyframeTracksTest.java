@@ -0,0 +1,105 @@
+package com.thomsonreuters.rippledecoratorview.core;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Keyframes written by the builder, read back and baked into sample tables.
+ */
+public class KeyframeTracksTest extends TestCase {
+    private static final int SAMPLES = 101;
+
+    public void testBuildBakesSamples() {
+        KeyframeTracks tracks = new KeyframeTracks.Builder(SAMPLES)
+                .setTrack(KeyframeTracks.TRACK_RADIUS, new float[] {0.0F, 1.0F},
+                        new float[] {0.0F, 1.0F})
+                .setTrack(KeyframeTracks.TRACK_ALPHA, new float[] {0.2F, 0.6F, 0.8F},
+                        new float[] {0.0F, 1.0F, 0.5F})
+                .build();
+        assertTrue(tracks.hasTrack(KeyframeTracks.TRACK_RADIUS));
+        assertTrue(tracks.hasTrack(KeyframeTracks.TRACK_ALPHA));
+        assertFalse(tracks.hasTrack(KeyframeTracks.TRACK_HIGHLIGHT));
+        /* Linear track, frames spread over 100 sample intervals */
+        assertEquals(0.0F, tracks.sample(KeyframeTracks.TRACK_RADIUS, 0, 100), 1e-6F);
+        assertEquals(0.25F, tracks.sample(KeyframeTracks.TRACK_RADIUS, 25, 100), 1e-6F);
+        assertEquals(1.0F, tracks.sample(KeyframeTracks.TRACK_RADIUS, 100, 100), 1e-6F);
+        /* Holds the first value before the first keyframe, the last one after the last */
+        assertEquals(0.0F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 10, 100), 1e-6F);
+        assertEquals(0.5F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 40, 100), 1e-5F);
+        assertEquals(1.0F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 60, 100), 1e-5F);
+        assertEquals(0.75F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 70, 100), 1e-5F);
+        assertEquals(0.5F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 90, 100), 1e-6F);
+        /* Frames past the end are clamped to the last sample */
+        assertEquals(0.5F, tracks.sample(KeyframeTracks.TRACK_ALPHA, 150, 100), 1e-6F);
+    }
+
+    public void testRoundTrip() throws IOException {
+        KeyframeTracks.Builder builder = new KeyframeTracks.Builder(SAMPLES)
+                .setTrack(KeyframeTracks.TRACK_HIGHLIGHT, new float[] {0.0F, 0.5F, 1.0F},
+                        new float[] {1.0F, 0.0F, 1.0F});
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        builder.writeTo(outputStream);
+        KeyframeTracks tracks = KeyframeTracks.readFrom(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+        KeyframeTracks built = builder.build();
+        for (int frame = 0; frame <= 60; frame++) {
+            assertEquals(built.sample(KeyframeTracks.TRACK_HIGHLIGHT, frame, 60),
+                    tracks.sample(KeyframeTracks.TRACK_HIGHLIGHT, frame, 60), 0.0F);
+        }
+        assertEquals(0.0F, tracks.sample(KeyframeTracks.TRACK_HIGHLIGHT, 30, 60), 1e-6F);
+    }
+
+    public void testBuilderRejectsInvalidKeyframes() {
+        assertBuilderRejects(new float[] {0.5F, 0.2F}, new float[] {0.0F, 1.0F});
+        assertBuilderRejects(new float[] {-0.1F, 1.0F}, new float[] {0.0F, 1.0F});
+        assertBuilderRejects(new float[] {0.0F, 1.5F}, new float[] {0.0F, 1.0F});
+        assertBuilderRejects(new float[] {0.0F, 1.0F}, new float[] {0.0F, 2.0F});
+        assertBuilderRejects(new float[] {0.0F, 1.0F}, new float[] {Float.NaN, 1.0F});
+        assertBuilderRejects(new float[] {0.0F, 1.0F}, new float[] {0.0F});
+    }
+
+    public void testReadRejectsInvalidKeyframes() throws IOException {
+        assertReadRejects(new float[] {0.5F, 0.2F}, new float[] {0.0F, 1.0F});
+        assertReadRejects(new float[] {0.0F, 1.5F}, new float[] {0.0F, 1.0F});
+        assertReadRejects(new float[] {0.0F, 1.0F}, new float[] {-1.0F, 1.0F});
+    }
+
+    private static void assertBuilderRejects(float[] times, float[] values) {
+        try {
+            new KeyframeTracks.Builder(SAMPLES).setTrack(KeyframeTracks.TRACK_ALPHA, times,
+                    values);
+            fail("Keyframes accepted");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+    }
+
+    /**
+     * Writes the binary form by hand, as a resource not made by the builder could be.
+     */
+    private static void assertReadRejects(float[] times, float[] values) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(0x5244564B);
+        out.writeByte(1);
+        out.writeShort(SAMPLES);
+        out.writeByte(1);
+        out.writeByte(KeyframeTracks.TRACK_ALPHA);
+        out.writeShort(times.length);
+        for (int k = 0; k < times.length; k++) {
+            out.writeFloat(times[k]);
+            out.writeFloat(values[k]);
+        }
+        out.flush();
+        try {
+            KeyframeTracks.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+            fail("Keyframes accepted");
+        } catch (IOException e) {
+            /* Expected */
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.thomsonreuters.rippledecoratorview.core;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Frame math of the built-in timeline, with a linear interpolator as the view uses by default.
+ */
+public class RippleFramesTest extends TestCase {
+    private static final RippleInterpolator LINEAR = new RippleInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    private static final int FUZZ_CONFIGS = 10000;
+
+    public void testRejectsNoFrames() {
+        try {
+            RippleFrames.validateAnimation(0, 0, false, 0);
+            fail("0 frames accepted");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+    }
+
+    public void testRejectsPeakPastLastFrame() {
+        try {
+            RippleFrames.validateAnimation(60, 61, false, 0);
+            fail("Ripple peak 61 of 60 accepted");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+        try {
+            RippleFrames.validateAnimation(60, 60, true, 61);
+            fail("Highlight peak 61 of 60 accepted");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+        /* The highlight peak does not matter without highlight */
+        RippleFrames.validateAnimation(60, 60, false, 61);
+    }
+
+    public void testFrame() {
+        float frameDuration = RippleFrames.getFrameDuration(400.0F, 40);
+        assertEquals(10.0F, frameDuration, 0.0F);
+        assertEquals(0, RippleFrames.getFrame(9.9F, frameDuration));
+        assertEquals(25, RippleFrames.getFrame(250.0F, frameDuration));
+    }
+
+    public void testHighlightFadesInToPeakAndOut() {
+        assertEquals(0, RippleFrames.getHighlightAlpha(0, 60, 30, 200.0F, LINEAR));
+        assertEquals(100, RippleFrames.getHighlightAlpha(15, 60, 30, 200.0F, LINEAR));
+        assertEquals(200, RippleFrames.getHighlightAlpha(30, 60, 30, 200.0F, LINEAR));
+        assertEquals(100, RippleFrames.getHighlightAlpha(45, 60, 30, 200.0F, LINEAR));
+        assertEquals(0, RippleFrames.getHighlightAlpha(60, 60, 30, 200.0F, LINEAR));
+    }
+
+    public void testRippleFadesAsItGrows() {
+        /* Peak on the last frame: the fade in and the growth cancel out half way */
+        assertEquals(63, RippleFrames.getRippleAlpha(30, 60, 60, 255.0F, 10.0F, 600.0F, LINEAR));
+        assertEquals(0, RippleFrames.getRippleAlpha(60, 60, 60, 255.0F, 10.0F, 600.0F, LINEAR));
+        assertEquals(50.0F, RippleFrames.getRippleRadius(100.0F, 30, 10.0F, 600.0F), 0.001F);
+    }
+
+    public void testWaveStagger() {
+        assertEquals(20, RippleFrames.getWaveStagger(-1, 60, 3));
+        assertEquals(5, RippleFrames.getWaveStagger(5, 60, 3));
+        /* Waves never start together, even with more waves than frames */
+        assertEquals(1, RippleFrames.getWaveStagger(0, 60, 3));
+        assertEquals(1, RippleFrames.getWaveStagger(-1, 4, 8));
+    }
+
+    public void testTrainFrames() {
+        assertEquals(60, RippleFrames.getTrainFrames(60, 1, 20));
+        /* The last wave starts 2 staggers in and still lasts all the frames */
+        assertEquals(100, RippleFrames.getTrainFrames(60, 3, 20));
+    }
+
+    public void testFuzzAlphasStayInRange() {
+        Random random = new Random(42L);
+        for (int i = 0; i < FUZZ_CONFIGS; i++) {
+            int frames = 1 + random.nextInt(240);
+            int ripplePeak = random.nextInt(frames + 1);
+            int highlightPeak = random.nextInt(frames + 1);
+            float duration = 1.0F + random.nextInt(2000);
+            float maxAlpha = random.nextInt(256);
+            RippleFrames.validateAnimation(frames, ripplePeak, true, highlightPeak);
+            float frameDuration = RippleFrames.getFrameDuration(duration, frames);
+            for (int frame = 0; frame < frames; frame++) {
+                int highlightAlpha = RippleFrames.getHighlightAlpha(frame, frames,
+                        highlightPeak, maxAlpha, LINEAR);
+                int rippleAlpha = RippleFrames.getRippleAlpha(frame, frames, ripplePeak,
+                        maxAlpha, frameDuration, duration, LINEAR);
+                String config = "frames=" + frames + " peaks=" + ripplePeak + "/"
+                        + highlightPeak + " frame=" + frame;
+                assertTrue(config, highlightAlpha >= 0 && highlightAlpha <= maxAlpha);
+                assertTrue(config, rippleAlpha >= 0 && rippleAlpha <= maxAlpha);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.thomsonreuters.rippledecoratorview.core;
+
+import junit.framework.TestCase;
+
+/**
+ * Trigger resolution and lifecycle driven by a simulated clock.
+ */
+public class RippleStateMachineTest extends TestCase {
+    private static final long MILLIS = 1000000L;
+
+    private static final float DURATION = 400.0F;
+
+    private static final float FADE_DURATION = 100.0F;
+
+    private RippleStateMachine mStateMachine;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mStateMachine = new RippleStateMachine();
+    }
+
+    public void testStartsOnItsTriggerOnly() {
+        assertEquals(RippleStateMachine.RESOLVED_NONE, mStateMachine.resolve(
+                RippleStateMachine.TRIGGER_ON_UP, RippleStateMachine.TRIGGER_ON_TAP));
+        assertEquals(RippleStateMachine.RESOLVED_START, mStateMachine.resolve(
+                RippleStateMachine.TRIGGER_ON_TAP, RippleStateMachine.TRIGGER_ON_TAP));
+        assertFalse(mStateMachine.start(0L, false));
+        /* A running animation is not restarted by its trigger */
+        assertEquals(RippleStateMachine.RESOLVED_NONE, mStateMachine.resolve(
+                RippleStateMachine.TRIGGER_ON_TAP, RippleStateMachine.TRIGGER_ON_TAP));
+    }
+
+    public void testEndsAfterDuration() {
+        mStateMachine.start(1000 * MILLIS, false);
+        assertEquals(250.0F, mStateMachine.getElapsedMilliseconds(1250 * MILLIS), 0.001F);
+        assertFalse(mStateMachine.isFinished(1399 * MILLIS, DURATION, FADE_DURATION));
+        assertTrue(mStateMachine.isFinished(1400 * MILLIS, DURATION, FADE_DURATION));
+        assertTrue(mStateMachine.stop());
+        assertFalse(mStateMachine.isRunning());
+        assertFalse(mStateMachine.stop());
+    }
+
+    public void testRestartReportsRunningAnimation() {
+        assertFalse(mStateMachine.start(0L, false));
+        assertTrue(mStateMachine.start(10 * MILLIS, false));
+        assertEquals(0.0F, mStateMachine.getElapsedMilliseconds(10 * MILLIS), 0.0F);
+    }
+
+    public void testTapCommitsSpeculation() {
+        assertTrue(mStateMachine.canSpeculate(true, RippleStateMachine.TRIGGER_ON_TAP));
+        assertFalse(mStateMachine.canSpeculate(true, RippleStateMachine.TRIGGER_ON_UP));
+        assertFalse(mStateMachine.canSpeculate(false, RippleStateMachine.TRIGGER_ON_TAP));
+        mStateMachine.start(0L, true);
+        assertTrue(mStateMachine.isSpeculationPending());
+        assertFalse(mStateMachine.canSpeculate(true, RippleStateMachine.TRIGGER_ON_TAP));
+        assertEquals(RippleStateMachine.RESOLVED_COMMIT, mStateMachine.resolve(
+                RippleStateMachine.TRIGGER_ON_TAP, RippleStateMachine.TRIGGER_ON_TAP));
+        assertFalse(mStateMachine.isSpeculationPending());
+        /* Committed ripples are not faded out by the end of the gesture */
+        mStateMachine.abortSpeculation(10 * MILLIS);
+        assertEquals(1.0F, mStateMachine.getSpeculationFade(60 * MILLIS, FADE_DURATION), 0.0F);
+    }
+
+    public void testAbortFadesSpeculationOut() {
+        mStateMachine.start(0L, true);
+        mStateMachine.abortSpeculation(100 * MILLIS);
+        assertFalse(mStateMachine.isSpeculationPending());
+        assertEquals(0.5F, mStateMachine.getSpeculationFade(150 * MILLIS, FADE_DURATION),
+                0.001F);
+        assertFalse(mStateMachine.isFinished(150 * MILLIS, DURATION, FADE_DURATION));
+        assertTrue(mStateMachine.isFinished(200 * MILLIS, DURATION, FADE_DURATION));
+    }
+
+    public void testTouchTriggers() {
+        assertTrue(RippleStateMachine.hasTouchTriggers(RippleStateMachine.TRIGGER_ON_TAP, false,
+                RippleStateMachine.TRIGGER_NONE));
+        assertTrue(RippleStateMachine.hasTouchTriggers(RippleStateMachine.TRIGGER_NONE, true,
+                RippleStateMachine.TRIGGER_ON_DOWN));
+        assertFalse(RippleStateMachine.hasTouchTriggers(RippleStateMachine.TRIGGER_NONE, true,
+                RippleStateMachine.TRIGGER_NONE));
+        assertTrue(RippleStateMachine.isZoomTriggered(RippleStateMachine.TRIGGER_ON_UP, true,
+                RippleStateMachine.TRIGGER_ON_UP));
+        assertFalse(RippleStateMachine.isZoomTriggered(RippleStateMachine.TRIGGER_ON_UP, false,
+                RippleStateMachine.TRIGGER_ON_UP));
+    }
+}
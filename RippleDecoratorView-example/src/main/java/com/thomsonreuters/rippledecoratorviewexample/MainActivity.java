@@ -14,11 +14,13 @@ limitations under the License. */
 
 package com.thomsonreuters.rippledecoratorviewexample;
 
+import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.support.v7.app.ActionBarActivity;
 import android.view.LayoutInflater;
 import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.animation.AccelerateInterpolator;
@@ -63,6 +65,15 @@ public class MainActivity extends ActionBarActivity {
         return true;
     }
 
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_stress) {
+            startActivity(new Intent(this, StressActivity.class));
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
     private class SampleAdapter extends BaseAdapter {
         @Override
         public int getCount() {
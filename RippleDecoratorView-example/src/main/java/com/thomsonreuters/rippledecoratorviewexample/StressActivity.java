@@ -0,0 +1,365 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorviewexample;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.support.v7.app.ActionBarActivity;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.BaseAdapter;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.GridView;
+import android.widget.Spinner;
+import android.widget.TextView;
+
+import com.thomsonreuters.rippledecoratorview.RippleDecoratorView;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Grid of decorated cells that scrolls by itself while a synthetic tick feed plays animations on
+ * random visible cells. Every run lasts RUN_DURATION milliseconds and ends with a frame time
+ * summary, printed to the log and on screen. Frame intervals come from the display vsync from
+ * Jelly Bean; before it they come from draw passes, skipping the idle time after frames with no
+ * running animation. A frame counts as missed when its interval passes one and a half display
+ * refresh periods, the slack RippleQualityGovernor allows.
+ */
+public class StressActivity extends ActionBarActivity {
+    private static final String TAG = "RippleStress";
+
+    private static final int CELLS = 1200;
+
+    private static final long RUN_DURATION = 20000L;
+
+    private static final long SCROLL_INTERVAL = 500L;
+
+    private static final int SCROLL_DISTANCE_DP = 400;
+
+    /** Refresh periods an interval can last before a frame counts as missed */
+    private static final float MISSED_FRAME_PERIODS = 1.5F;
+
+    private static final int MAX_FRAMES = 1 << 14;
+
+    private final Handler mHandler = new Handler();
+
+    private final Random mRandom = new Random();
+
+    private final long[] mFrameIntervals = new long[MAX_FRAMES];
+
+    private int mFrameCount = 0;
+
+    private long mLastFrameNanoTime = 0L;
+
+    private long mRefreshPeriodNanos = 0L;
+
+    private boolean mWasAnimating = false;
+
+    private VsyncFrameCallback mVsyncFrameCallback;
+
+    private int mMaxRunningAnimations = 0;
+
+    private int mTicks = 0;
+
+    private boolean mIsRunning = false;
+
+    private int mScrollDirection = 1;
+
+    private GridView mGrid;
+
+    private CheckBox mFillCheck;
+
+    private CheckBox mHighlightCheck;
+
+    private CheckBox mZoomCheck;
+
+    private CheckBox mScrollCheck;
+
+    private Spinner mRateSpinner;
+
+    private Spinner mConcurrencySpinner;
+
+    private Button mRunButton;
+
+    private TextView mSummaryText;
+
+    private StressAdapter mAdapter;
+
+    private final ViewTreeObserver.OnPreDrawListener mFrameListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            /* Nothing asks for frames once animations end, the wait for the next one is idle */
+            if (!mWasAnimating) {
+                mLastFrameNanoTime = 0L;
+            }
+            recordFrame(System.nanoTime());
+            mWasAnimating = RippleDecoratorView.getRunningAnimations() > 0;
+            return true;
+        }
+    };
+
+    private final Runnable mTickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int concurrency = Integer.parseInt((String)mConcurrencySpinner.getSelectedItem());
+            int visible = mGrid.getChildCount();
+            for (int i = 0; i < concurrency && visible > 0; i++) {
+                RippleDecoratorView cell = (RippleDecoratorView)mGrid.getChildAt(mRandom
+                        .nextInt(visible));
+                cell.doAnimation(cell.getWidth() / 2, cell.getHeight() / 2);
+            }
+            mTicks++;
+            mMaxRunningAnimations = Math.max(mMaxRunningAnimations,
+                    RippleDecoratorView.getRunningAnimations());
+            int rate = Integer.parseInt((String)mRateSpinner.getSelectedItem());
+            mHandler.postDelayed(this, 1000L / rate);
+        }
+    };
+
+    private final Runnable mScrollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mScrollCheck.isChecked()) {
+                if (mGrid.getLastVisiblePosition() >= CELLS - 1) {
+                    mScrollDirection = -1;
+                } else if (mGrid.getFirstVisiblePosition() == 0) {
+                    mScrollDirection = 1;
+                }
+                float density = getResources().getDisplayMetrics().density;
+                int distance = (int)(SCROLL_DISTANCE_DP * density);
+                mGrid.smoothScrollBy(mScrollDirection * distance, (int)SCROLL_INTERVAL);
+            }
+            mHandler.postDelayed(this, SCROLL_INTERVAL);
+        }
+    };
+
+    private final Runnable mStopRunnable = new Runnable() {
+        @Override
+        public void run() {
+            stopRun();
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+        mGrid = (GridView)findViewById(R.id.stress_grd);
+        mFillCheck = (CheckBox)findViewById(R.id.stress_fill_chk);
+        mHighlightCheck = (CheckBox)findViewById(R.id.stress_highlight_chk);
+        mZoomCheck = (CheckBox)findViewById(R.id.stress_zoom_chk);
+        mScrollCheck = (CheckBox)findViewById(R.id.stress_scroll_chk);
+        mRateSpinner = (Spinner)findViewById(R.id.stress_rate_spn);
+        mConcurrencySpinner = (Spinner)findViewById(R.id.stress_concurrency_spn);
+        mRunButton = (Button)findViewById(R.id.stress_run_btn);
+        mSummaryText = (TextView)findViewById(R.id.stress_summary_txt);
+        mAdapter = new StressAdapter();
+        mGrid.setAdapter(mAdapter);
+        CompoundButton.OnCheckedChangeListener modeListener =
+                new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                /* Visible cells pick up the new mode when rebound */
+                mAdapter.notifyDataSetChanged();
+            }
+        };
+        mFillCheck.setOnCheckedChangeListener(modeListener);
+        mHighlightCheck.setOnCheckedChangeListener(modeListener);
+        mZoomCheck.setOnCheckedChangeListener(modeListener);
+        mRunButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (mIsRunning) {
+                    stopRun();
+                } else {
+                    startRun();
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (mIsRunning) {
+            stopRun();
+        }
+    }
+
+    private void recordFrame(long frameNanoTime) {
+        if (mLastFrameNanoTime != 0L && mFrameCount < MAX_FRAMES) {
+            mFrameIntervals[mFrameCount++] = frameNanoTime - mLastFrameNanoTime;
+        }
+        mLastFrameNanoTime = frameNanoTime;
+    }
+
+    private void startRun() {
+        mIsRunning = true;
+        mFrameCount = 0;
+        mLastFrameNanoTime = 0L;
+        mWasAnimating = false;
+        mMaxRunningAnimations = 0;
+        mTicks = 0;
+        mRefreshPeriodNanos = (long)(1000000000L
+                / getWindowManager().getDefaultDisplay().getRefreshRate());
+        mRunButton.setText(R.string.stress_stop);
+        mSummaryText.setText("");
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mVsyncFrameCallback = new VsyncFrameCallback();
+            mVsyncFrameCallback.start();
+        } else {
+            mGrid.getViewTreeObserver().addOnPreDrawListener(mFrameListener);
+        }
+        mHandler.post(mTickRunnable);
+        mHandler.post(mScrollRunnable);
+        mHandler.postDelayed(mStopRunnable, RUN_DURATION);
+    }
+
+    private void stopRun() {
+        mIsRunning = false;
+        mHandler.removeCallbacks(mTickRunnable);
+        mHandler.removeCallbacks(mScrollRunnable);
+        mHandler.removeCallbacks(mStopRunnable);
+        if (mVsyncFrameCallback != null) {
+            mVsyncFrameCallback.stop();
+            mVsyncFrameCallback = null;
+        } else {
+            mGrid.getViewTreeObserver().removeOnPreDrawListener(mFrameListener);
+        }
+        mRunButton.setText(R.string.stress_start);
+        String summary = summarize();
+        Log.i(TAG, summary);
+        mSummaryText.setText(summary);
+    }
+
+    private String summarize() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("style=").append(mFillCheck.isChecked() ? "fill" : "stroke");
+        builder.append(" highlight=").append(mHighlightCheck.isChecked());
+        builder.append(" zoom=").append(mZoomCheck.isChecked());
+        builder.append(" scroll=").append(mScrollCheck.isChecked());
+        builder.append(" rate=").append(mRateSpinner.getSelectedItem());
+        builder.append(" concurrency=").append(mConcurrencySpinner.getSelectedItem());
+        builder.append('\n');
+        if (mFrameCount == 0) {
+            return builder.append("no frames").toString();
+        }
+        long[] sorted = Arrays.copyOf(mFrameIntervals, mFrameCount);
+        Arrays.sort(sorted);
+        long total = 0L;
+        /* One missed frame makes an interval of two periods, two make three */
+        long missedNanos = (long)(mRefreshPeriodNanos * MISSED_FRAME_PERIODS);
+        long missedTwiceNanos = missedNanos + mRefreshPeriodNanos;
+        int missed = 0;
+        int missedTwice = 0;
+        for (long interval : sorted) {
+            total += interval;
+            if (interval > missedNanos) {
+                missed++;
+            }
+            if (interval > missedTwiceNanos) {
+                missedTwice++;
+            }
+        }
+        builder.append("frames=").append(mFrameCount);
+        builder.append(" ticks=").append(mTicks);
+        builder.append(" maxRunning=").append(mMaxRunningAnimations);
+        builder.append('\n');
+        builder.append("mean=").append(toMillis(total / mFrameCount));
+        builder.append(" p50=").append(toMillis(sorted[percentileIndex(50)]));
+        builder.append(" p95=").append(toMillis(sorted[percentileIndex(95)]));
+        builder.append(" p99=").append(toMillis(sorted[percentileIndex(99)]));
+        builder.append(" max=").append(toMillis(sorted[mFrameCount - 1]));
+        builder.append('\n');
+        builder.append("period=").append(toMillis(mRefreshPeriodNanos));
+        builder.append(" >").append(toMillis(missedNanos)).append('=').append(missed);
+        builder.append(" >").append(toMillis(missedTwiceNanos)).append('=').append(missedTwice);
+        return builder.toString();
+    }
+
+    private int percentileIndex(int percentile) {
+        return Math.min(mFrameCount - 1, (int)Math.ceil(mFrameCount * percentile / 100.0) - 1);
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.US, "%.1fms", nanos / 1000000.0F);
+    }
+
+    /**
+     * Records the interval between display frames. A frame missed by the UI thread shows as a
+     * longer interval, while idle frames count as on time.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class VsyncFrameCallback implements Choreographer.FrameCallback {
+        private void start() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        private void stop() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            recordFrame(frameTimeNanos);
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private class StressAdapter extends BaseAdapter {
+        @Override
+        public int getCount() {
+            return CELLS;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            if (convertView == null) {
+                convertView = LayoutInflater.from(parent.getContext()).inflate(
+                        R.layout.element_stress_cell, parent, false);
+            }
+            RippleDecoratorView cell = (RippleDecoratorView)convertView;
+            /* Reused views need not animate */
+            cell.cancelAnimation();
+            cell.setRippleStyle(mFillCheck.isChecked() ? RippleDecoratorView.Styles.FILL
+                    : RippleDecoratorView.Styles.STROKE);
+            cell.setHighlightAnimation(mHighlightCheck.isChecked());
+            cell.setZoomAnimation(mZoomCheck.isChecked());
+            ((TextView)cell.findViewById(R.id.stress_cell_txt)).setText(String.valueOf(position));
+            return convertView;
+        }
+    }
+}
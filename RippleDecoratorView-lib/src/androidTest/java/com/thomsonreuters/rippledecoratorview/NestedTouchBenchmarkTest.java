@@ -0,0 +1,167 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+/**
+ * Dispatches taps through decorators nested 1 to 5 deep and reports the cost per event and the
+ * ripples started per tap for each nested touch mode.
+ */
+public class NestedTouchBenchmarkTest extends AndroidTestCase {
+    private static final String TAG = "NestedTouchBenchmark";
+
+    private static final int MAX_DEPTH = 5;
+
+    private static final int TAPS = 100;
+
+    private static final int MOVES_PER_TAP = 10;
+
+    private static final int SIZE = 100;
+
+    private int mAnimationStarts;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        if (Looper.myLooper() == null) {
+            /* Gesture detectors and the frame handler need a looper */
+            Looper.prepare();
+        }
+    }
+
+    public void testAlways() {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int starts = run(depth, RippleDecoratorView.NestedTouchModes.ALWAYS);
+            /* Every decorator ripples on every tap */
+            assertEquals(depth * TAPS, starts);
+        }
+    }
+
+    public void testInnermost() {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int starts = run(depth, RippleDecoratorView.NestedTouchModes.INNERMOST);
+            assertEquals(TAPS, starts);
+        }
+    }
+
+    public void testInnermostKeepsEventsOfTheSameMillisecond() {
+        RippleDecoratorView root = buildHierarchy(1,
+                RippleDecoratorView.NestedTouchModes.INNERMOST);
+        root.setRippleSpeculative(true);
+        final int[] clicks = new int[1];
+        root.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                clicks[0]++;
+            }
+        });
+        int slop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        long downTime = SystemClock.uptimeMillis();
+        long moveTime = downTime + 10;
+        dispatch(root, downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2);
+        dispatch(root, downTime, moveTime, MotionEvent.ACTION_MOVE, SIZE / 2 + 1);
+        /* Same time and action as the previous move, but a scroll past the touch slop */
+        dispatch(root, downTime, moveTime, MotionEvent.ACTION_MOVE, SIZE / 2 + 2 * slop);
+        dispatch(root, downTime, moveTime, MotionEvent.ACTION_UP, SIZE / 2 + 2 * slop);
+        /* The scroll aborted the speculative ripple, the up is not a tap */
+        assertEquals(0, clicks[0]);
+        root.cancelAnimation();
+    }
+
+    private int run(int depth, RippleDecoratorView.NestedTouchModes mode) {
+        RippleDecoratorView root = buildHierarchy(depth, mode);
+        mAnimationStarts = 0;
+        long totalNanos = 0L;
+        int events = 0;
+        for (int i = 0; i < TAPS; i++) {
+            long downTime = SystemClock.uptimeMillis();
+            totalNanos += dispatch(root, downTime, downTime, MotionEvent.ACTION_DOWN);
+            events++;
+            for (int m = 0; m < MOVES_PER_TAP; m++) {
+                totalNanos += dispatch(root, downTime, SystemClock.uptimeMillis(),
+                        MotionEvent.ACTION_MOVE);
+                events++;
+            }
+            totalNanos += dispatch(root, downTime, SystemClock.uptimeMillis(),
+                    MotionEvent.ACTION_UP);
+            events++;
+            /* Resets the detectors so the next tap is not taken for a double tap */
+            dispatch(root, downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_CANCEL);
+            cancelAll(root);
+        }
+        Log.i(TAG, mode.name() + " depth=" + depth + " nanosPerEvent=" + (totalNanos / events)
+                + " ripplesPerTap=" + ((float)mAnimationStarts / TAPS));
+        return mAnimationStarts;
+    }
+
+    private RippleDecoratorView buildHierarchy(int depth,
+            RippleDecoratorView.NestedTouchModes mode) {
+        RippleDecoratorView.OnTraceListener counter = new RippleDecoratorView.OnTraceListener() {
+            @Override
+            public void onTraceTouchEvent(MotionEvent event, boolean intercepted) {
+            }
+
+            @Override
+            public void onTraceAnimationStart(RippleDecoratorView.Triggers trigger, float x,
+                    float y) {
+                mAnimationStarts++;
+            }
+
+            @Override
+            public void onTraceInvalidate() {
+            }
+        };
+        RippleDecoratorView root = null;
+        ViewGroup parent = null;
+        for (int level = 0; level < depth; level++) {
+            RippleDecoratorView view = new RippleDecoratorView(getContext());
+            view.setNestedTouchMode(mode);
+            view.setOnTraceListener(counter);
+            if (parent == null) {
+                root = view;
+            } else {
+                parent.addView(view, new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            }
+            parent = view;
+        }
+        parent.addView(new View(getContext()), new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        root.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, SIZE, SIZE);
+        return root;
+    }
+
+    private long dispatch(RippleDecoratorView root, long downTime, long eventTime, int action) {
+        return dispatch(root, downTime, eventTime, action, SIZE / 2);
+    }
+
+    private long dispatch(RippleDecoratorView root, long downTime, long eventTime, int action,
+            float x) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, SIZE / 2, 0);
+        long startNanoTime = System.nanoTime();
+        root.dispatchTouchEvent(event);
+        long elapsedNanos = System.nanoTime() - startNanoTime;
+        event.recycle();
+        return elapsedNanos;
+    }
+
+    private void cancelAll(View view) {
+        if (view instanceof RippleDecoratorView) {
+            ((RippleDecoratorView)view).cancelAnimation();
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup)view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                cancelAll(group.getChildAt(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays scripted taps on a detached view living on its own looper and reports touch to first
+ * ripple frame latencies per trigger. Events are posted at their scripted times and frames follow
+ * the invalidate cycle of the view: every invalidation schedules a draw on the next frame boundary
+ * of the looper, as the display would, so latencies include waiting for the next frame.
+ *
+ * Latencies are reported from the triggering event, which for onTap is the up, and from the down
+ * of the gesture.
+ */
+public class RippleLatencyTest extends AndroidTestCase {
+    private static final String TAG = "RippleLatencyTest";
+
+    private static final int TAPS = 100;
+
+    /** Time a finger stays down on a tap */
+    private static final long TAP_MILLIS = 50L;
+
+    private static final long TAP_INTERVAL_MILLIS = 100L;
+
+    private static final long FRAME_MILLIS = 16L;
+
+    private static final long TIMEOUT_SECONDS = 30L;
+
+    private static final int WIDTH = 200;
+
+    private static final int HEIGHT = 100;
+
+    private HandlerThread mThread;
+
+    private Handler mHandler;
+
+    private RippleDecoratorView mView;
+
+    private RippleLatencyTracker mTracker;
+
+    private Bitmap mBitmap;
+
+    private Canvas mCanvas;
+
+    private boolean mIsFramePending = false;
+
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mIsFramePending = false;
+            mView.draw(mCanvas);
+        }
+    };
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mThread = new HandlerThread(TAG);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+        mBitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+        mTracker = new RippleLatencyTracker();
+        runOnLooper(new Runnable() {
+            @Override
+            public void run() {
+                /* Gesture detectors and the frame handler live on the looper of the test */
+                mView = new RippleDecoratorView(getContext());
+                mView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                mView.layout(0, 0, WIDTH, HEIGHT);
+                mView.setLatencyTracker(mTracker);
+                mView.setOnTraceListener(new RippleDecoratorView.OnTraceListener() {
+                    @Override
+                    public void onTraceTouchEvent(MotionEvent event, boolean intercepted) {
+                    }
+
+                    @Override
+                    public void onTraceAnimationStart(RippleDecoratorView.Triggers trigger,
+                            float x, float y) {
+                    }
+
+                    @Override
+                    public void onTraceInvalidate() {
+                        scheduleFrame();
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mThread.quit();
+        mBitmap.recycle();
+        super.tearDown();
+    }
+
+    public void testOnDownLatency() throws InterruptedException {
+        playTaps(RippleDecoratorView.Triggers.onDown, false);
+        LatencyHistogram histogram = mTracker.getHistogram(RippleDecoratorView.Triggers.onDown);
+        LatencyHistogram downHistogram = mTracker.getDownHistogram(
+                RippleDecoratorView.Triggers.onDown);
+        /* The down is the triggering event */
+        assertEquals(histogram.getPercentile(50), downHistogram.getPercentile(50));
+    }
+
+    public void testOnUpLatency() throws InterruptedException {
+        playTaps(RippleDecoratorView.Triggers.onUp, false);
+        assertTrue(mTracker.getDownHistogram(RippleDecoratorView.Triggers.onUp)
+                .getPercentile(50) >= TAP_MILLIS);
+    }
+
+    public void testOnTapLatency() throws InterruptedException {
+        playTaps(RippleDecoratorView.Triggers.onTap, false);
+        /* Drawn after the up, so never earlier than the tap lasts from the down */
+        assertTrue(mTracker.getDownHistogram(RippleDecoratorView.Triggers.onTap)
+                .getPercentile(50) >= TAP_MILLIS);
+    }
+
+    public void testSpeculativeOnTapLatency() throws InterruptedException {
+        playTaps(RippleDecoratorView.Triggers.onTap, true);
+        /* Drawn on the first frames after the down, before the up resolves the tap */
+        assertTrue(mTracker.getDownHistogram(RippleDecoratorView.Triggers.onTap)
+                .getPercentile(50) < TAP_MILLIS);
+        assertEquals(0, mTracker.getHistogram(RippleDecoratorView.Triggers.onTap)
+                .getPercentile(50));
+    }
+
+    private void playTaps(final RippleDecoratorView.Triggers trigger, final boolean speculative)
+            throws InterruptedException {
+        runOnLooper(new Runnable() {
+            @Override
+            public void run() {
+                mView.setRippleAnimationTrigger(trigger);
+                mView.setRippleSpeculative(speculative);
+            }
+        });
+        long baseTime = SystemClock.uptimeMillis() + TAP_INTERVAL_MILLIS;
+        for (int i = 0; i < TAPS; i++) {
+            float x = (i * 7) % WIDTH;
+            float y = (i * 3) % HEIGHT;
+            long downTime = baseTime + i * TAP_INTERVAL_MILLIS;
+            /* A ripple still running would keep the tap from starting its own */
+            postCancelAnimation(downTime);
+            postEvent(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+            postEvent(downTime, downTime + TAP_MILLIS, MotionEvent.ACTION_UP, x, y);
+            /* Resets the detectors so the next tap is not taken for a double tap */
+            postEvent(downTime, downTime + TAP_MILLIS, MotionEvent.ACTION_CANCEL, x, y);
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        mHandler.postAtTime(new Runnable() {
+            @Override
+            public void run() {
+                mView.cancelAnimation();
+                done.countDown();
+            }
+        }, baseTime + TAPS * TAP_INTERVAL_MILLIS);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        LatencyHistogram histogram = mTracker.getHistogram(trigger);
+        LatencyHistogram downHistogram = mTracker.getDownHistogram(trigger);
+        String name = trigger.name() + (speculative ? " speculative" : "");
+        Log.i(TAG, name + " from trigger event " + histogram);
+        Log.i(TAG, name + " from down " + downHistogram);
+        assertEquals(TAPS, histogram.getCount());
+        assertEquals(TAPS, downHistogram.getCount());
+    }
+
+    private void postCancelAnimation(long uptimeMillis) {
+        mHandler.postAtTime(new Runnable() {
+            @Override
+            public void run() {
+                mView.cancelAnimation();
+            }
+        }, uptimeMillis);
+    }
+
+    private void postEvent(final long downTime, final long eventTime, final int action,
+            final float x, final float y) {
+        mHandler.postAtTime(new Runnable() {
+            @Override
+            public void run() {
+                MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+                mView.onTouchEvent(event);
+                event.recycle();
+            }
+        }, eventTime);
+    }
+
+    /**
+     * Draws on the next frame boundary after an invalidation, once per frame.
+     */
+    private void scheduleFrame() {
+        if (mIsFramePending) {
+            return;
+        }
+        mIsFramePending = true;
+        long now = SystemClock.uptimeMillis();
+        mHandler.postAtTime(mFrameRunnable, now - now % FRAME_MILLIS + FRAME_MILLIS);
+    }
+
+    private void runOnLooper(final Runnable runnable) throws InterruptedException {
+        final CountDownLatch ran = new CountDownLatch(1);
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                runnable.run();
+                ran.countDown();
+            }
+        });
+        assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,167 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.test.AndroidTestCase;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test posting animations and configuration to a real view from many threads while its
+ * looper drains them.
+ */
+public class RipplePostTest extends AndroidTestCase {
+    private static final int SIZE = 100;
+
+    private static final int ANIMATION_PRODUCERS = 6;
+
+    private static final int REQUESTS_PER_PRODUCER = 5000;
+
+    private static final long TIMEOUT_SECONDS = 20L;
+
+    private HandlerThread mThread;
+
+    private Handler mHandler;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mThread = new HandlerThread("RipplePostTest");
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mThread.quit();
+        super.tearDown();
+    }
+
+    public void testPostFromManyThreads() throws InterruptedException {
+        final RippleDecoratorView[] views = new RippleDecoratorView[1];
+        final AtomicInteger starts = new AtomicInteger();
+        final AtomicInteger invalidStarts = new AtomicInteger();
+        runOnLooper(new Runnable() {
+            @Override
+            public void run() {
+                RippleDecoratorView view = new RippleDecoratorView(getContext());
+                view.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+                view.layout(0, 0, SIZE, SIZE);
+                view.setOnTraceListener(new RippleDecoratorView.OnTraceListener() {
+                    @Override
+                    public void onTraceTouchEvent(MotionEvent event, boolean intercepted) {
+                    }
+
+                    @Override
+                    public void onTraceAnimationStart(RippleDecoratorView.Triggers trigger,
+                            float x, float y) {
+                        starts.incrementAndGet();
+                        /* Only coordinates posted by a producer, applied on the view looper */
+                        if (Thread.currentThread() != mThread || x < 0
+                                || x >= ANIMATION_PRODUCERS || y < 0
+                                || y >= REQUESTS_PER_PRODUCER) {
+                            invalidStarts.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onTraceInvalidate() {
+                    }
+                });
+                views[0] = view;
+            }
+        });
+        final RippleDecoratorView view = views[0];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(ANIMATION_PRODUCERS + 3);
+        for (int p = 0; p < ANIMATION_PRODUCERS; p++) {
+            final int producer = p;
+            startProducer(start, done, new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                        while (!view.postAnimation(producer, i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+        }
+        /* Each field is written by its own thread, no update may be lost to another one */
+        startProducer(start, done, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                    view.postRippleColor(Color.rgb(0, 0, i & 0xFF));
+                }
+                view.postRippleColor(Color.RED);
+            }
+        });
+        startProducer(start, done, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                    view.postHighlightColor(Color.rgb(0, i & 0xFF, 0));
+                }
+                view.postHighlightColor(Color.BLUE);
+            }
+        });
+        startProducer(start, done, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                    view.setRippleMaxAlpha((i & 0xFF) / 255.0F);
+                }
+                view.setRippleMaxAlpha(0.5F);
+            }
+        });
+        start.countDown();
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        /* Every drain scheduled by the producers is ahead of this message */
+        runOnLooper(new Runnable() {
+            @Override
+            public void run() {
+                view.cancelAnimation();
+            }
+        });
+        assertTrue(starts.get() > 0);
+        assertEquals(0, invalidStarts.get());
+        assertEquals(Color.RED, view.getRippleColor());
+        assertEquals(Color.BLUE, view.getHighlighColor());
+        assertEquals(0.5F, view.getRippleMaxAlpha(), 0.0F);
+    }
+
+    private void startProducer(final CountDownLatch start, final CountDownLatch done,
+            final Runnable work) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                work.run();
+                done.countDown();
+            }
+        }).start();
+    }
+
+    private void runOnLooper(final Runnable runnable) throws InterruptedException {
+        final CountDownLatch ran = new CountDownLatch(1);
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                runnable.run();
+                ran.countDown();
+            }
+        });
+        assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+}
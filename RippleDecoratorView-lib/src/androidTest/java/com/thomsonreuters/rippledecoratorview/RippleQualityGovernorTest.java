@@ -0,0 +1,123 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.test.AndroidTestCase;
+
+/**
+ * Tier changes of the governor fed with synthetic frame intervals. Low-RAM devices and power-save
+ * mode raise the starting tier, so steps are checked from wherever the governor starts.
+ */
+public class RippleQualityGovernorTest extends AndroidTestCase {
+    private static final long PLANNED_NANOS = 16666667L;
+
+    /** Over one and a half budgets, so janky */
+    private static final long JANKY_NANOS = 3 * PLANNED_NANOS;
+
+    private static final int WINDOW_FRAMES = 30;
+
+    private static final int STEP_UP_WINDOWS = 4;
+
+    private static final RippleQualityGovernor.Tiers[] TIERS =
+            RippleQualityGovernor.Tiers.values();
+
+    private RippleQualityGovernor mGovernor;
+
+    private int mChanges;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mGovernor = new RippleQualityGovernor(getContext());
+        mChanges = 0;
+        mGovernor.setOnQualityChangeListener(
+                new RippleQualityGovernor.OnQualityChangeListener() {
+                    @Override
+                    public void onQualityChanged(RippleQualityGovernor.Tiers oldTier,
+                            RippleQualityGovernor.Tiers newTier) {
+                        mChanges++;
+                    }
+                });
+    }
+
+    public void testStepsDownOneTierPerJankyWindow() {
+        int floor = mGovernor.getTier().ordinal();
+        for (int tier = floor + 1; tier < TIERS.length; tier++) {
+            /* A window short of one frame does not step yet */
+            recordFrames(WINDOW_FRAMES - 1, JANKY_NANOS);
+            assertEquals(TIERS[tier - 1], mGovernor.getTier());
+            recordFrames(1, JANKY_NANOS);
+            assertEquals(TIERS[tier], mGovernor.getTier());
+        }
+        assertEquals(TIERS.length - 1 - floor, mChanges);
+        /* Already at the lowest tier */
+        recordWindow(WINDOW_FRAMES, WINDOW_FRAMES);
+        assertEquals(RippleQualityGovernor.Tiers.NO_ZOOM, mGovernor.getTier());
+    }
+
+    public void testStepsDownOnlyPastJankThreshold() {
+        int floor = mGovernor.getTier().ordinal();
+        recordWindow(5, WINDOW_FRAMES);
+        assertEquals(TIERS[floor], mGovernor.getTier());
+        recordWindow(6, WINDOW_FRAMES);
+        assertEquals(TIERS[Math.min(TIERS.length - 1, floor + 1)], mGovernor.getTier());
+    }
+
+    public void testStepsUpAfterWindowsWithHeadroom() {
+        int floor = mGovernor.getTier().ordinal();
+        for (int i = floor; i < TIERS.length - 1; i++) {
+            recordWindow(WINDOW_FRAMES, WINDOW_FRAMES);
+        }
+        assertEquals(RippleQualityGovernor.Tiers.NO_ZOOM, mGovernor.getTier());
+        for (int tier = TIERS.length - 2; tier >= floor; tier--) {
+            for (int window = 1; window < STEP_UP_WINDOWS; window++) {
+                /* One janky frame still leaves headroom */
+                recordWindow(1, WINDOW_FRAMES);
+                assertEquals(TIERS[tier + 1], mGovernor.getTier());
+            }
+            recordWindow(0, WINDOW_FRAMES);
+            assertEquals(TIERS[tier], mGovernor.getTier());
+        }
+        /* Never above the floor set by the device */
+        for (int window = 0; window < STEP_UP_WINDOWS; window++) {
+            recordWindow(0, WINDOW_FRAMES);
+        }
+        assertEquals(TIERS[floor], mGovernor.getTier());
+    }
+
+    public void testMiddlingWindowResetsHeadroom() {
+        int floor = mGovernor.getTier().ordinal();
+        for (int i = floor; i < TIERS.length - 1; i++) {
+            recordWindow(WINDOW_FRAMES, WINDOW_FRAMES);
+        }
+        for (int window = 1; window < STEP_UP_WINDOWS; window++) {
+            recordWindow(0, WINDOW_FRAMES);
+        }
+        /* Too janky for headroom, not enough to step down */
+        recordWindow(3, WINDOW_FRAMES);
+        recordWindow(0, WINDOW_FRAMES);
+        assertEquals(RippleQualityGovernor.Tiers.NO_ZOOM, mGovernor.getTier());
+    }
+
+    public void testOverrideHidesAdaptiveTier() {
+        mGovernor.setOverrideTier(RippleQualityGovernor.Tiers.FULL);
+        int changes = mChanges;
+        recordWindow(WINDOW_FRAMES, WINDOW_FRAMES);
+        assertEquals(RippleQualityGovernor.Tiers.FULL, mGovernor.getTier());
+        assertEquals(changes, mChanges);
+        mGovernor.setOverrideTier(null);
+        assertTrue(mGovernor.getTier().ordinal() > RippleQualityGovernor.Tiers.FULL.ordinal());
+    }
+
+    /**
+     * Records frames, the janky ones first.
+     */
+    private void recordWindow(int jankyFrames, int frames) {
+        recordFrames(jankyFrames, JANKY_NANOS);
+        recordFrames(frames - jankyFrames, PLANNED_NANOS);
+    }
+
+    private void recordFrames(int frames, long intervalNanos) {
+        for (int i = 0; i < frames; i++) {
+            mGovernor.recordFrame(intervalNanos, PLANNED_NANOS);
+        }
+    }
+}
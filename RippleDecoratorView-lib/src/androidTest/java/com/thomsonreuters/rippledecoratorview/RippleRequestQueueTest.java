@@ -0,0 +1,79 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Stress test for the queue behind {@link RippleDecoratorView#postAnimation(float, float)}.
+ */
+public class RippleRequestQueueTest extends TestCase {
+    private static final int PRODUCERS = 8;
+
+    private static final int REQUESTS_PER_PRODUCER = 20000;
+
+    public void testRejectsCapacityNotPowerOfTwo() {
+        try {
+            new RippleRequestQueue(12);
+            fail("Capacity 12 accepted");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+    }
+
+    public void testDropsWhenFull() {
+        RippleRequestQueue queue = new RippleRequestQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i, i));
+        }
+        assertFalse(queue.offer(4, 4));
+        assertTrue(queue.poll());
+        assertEquals(0.0F, queue.getPolledX(), 0.0F);
+        assertTrue(queue.offer(4, 4));
+    }
+
+    public void testManyProducersSingleConsumer() throws InterruptedException {
+        final RippleRequestQueue queue = new RippleRequestQueue(32);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                        while (!queue.offer(producer, i)) {
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        int[] nextExpected = new int[PRODUCERS];
+        int received = 0;
+        start.countDown();
+        while (received < PRODUCERS * REQUESTS_PER_PRODUCER) {
+            if (!queue.poll()) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int)queue.getPolledX();
+            int sequence = (int)queue.getPolledY();
+            /* Requests from one producer keep their order */
+            assertEquals("Producer " + producer, nextExpected[producer], sequence);
+            nextExpected[producer]++;
+            received++;
+        }
+        done.await();
+        assertFalse(queue.poll());
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(REQUESTS_PER_PRODUCER, nextExpected[p]);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+
+/**
+ * Compares the single pass composition with the highlight rectangle and ripple circle drawn one
+ * over the other, and reports the time each takes to draw a frame.
+ */
+public class SinglePassCompositionTest extends TestCase {
+    private static final String TAG = "SinglePassComposition";
+
+    private static final int WIDTH = 200;
+
+    private static final int HEIGHT = 100;
+
+    /** Background standing for the children drawn by super.draw() */
+    private static final int BACKGROUND = 0xFF3366CC;
+
+    private static final float STROKE_WIDTH = 4.0F;
+
+    /** Per channel difference allowed away from the ripple edges, for rounding */
+    private static final int TOLERANCE = 3;
+
+    /**
+     * Coverage difference allowed on the ripple edges. Antialiasing and the gradient both ramp
+     * from one color to the other over about one pixel, but sample the ramp differently, so an
+     * edge pixel may sit up to half way between the colors of the two sides.
+     */
+    private static final float EDGE_COVERAGE = 0.5F;
+
+    /** Distance to an edge under which a pixel is compared with the edge tolerance */
+    private static final float EDGE_DISTANCE = 1.5F;
+
+    private static final int FRAMES = 60;
+
+    private static final int ITERATIONS = 20;
+
+    private final Rect mBounds = new Rect(0, 0, WIDTH, HEIGHT);
+
+    private Bitmap mTwoPassBitmap;
+
+    private Bitmap mSinglePassBitmap;
+
+    private Canvas mTwoPassCanvas;
+
+    private Canvas mSinglePassCanvas;
+
+    private Paint mHighlightPaint;
+
+    private Paint mRipplePaint;
+
+    private SinglePassRippleComposer mComposer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mTwoPassBitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        mSinglePassBitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        mTwoPassCanvas = new Canvas(mTwoPassBitmap);
+        mSinglePassCanvas = new Canvas(mSinglePassBitmap);
+        /* Same settings as RippleDecoratorView.initPaints() */
+        mHighlightPaint = new Paint();
+        mHighlightPaint.setAntiAlias(false);
+        mHighlightPaint.setStyle(Paint.Style.FILL);
+        mRipplePaint = new Paint();
+        mRipplePaint.setAntiAlias(true);
+        mRipplePaint.setStrokeWidth(STROKE_WIDTH);
+        mComposer = new SinglePassRippleComposer();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mTwoPassBitmap.recycle();
+        mSinglePassBitmap.recycle();
+        super.tearDown();
+    }
+
+    public void testCompositeOver() {
+        assertEquals(0xFFFF0000, SinglePassRippleComposer.compositeOver(0xFFFF0000, 0x80FFFFFF));
+        assertEquals(0x80FFFFFF, SinglePassRippleComposer.compositeOver(0x00FF0000, 0x80FFFFFF));
+        assertEquals(0, SinglePassRippleComposer.compositeOver(0, 0));
+        /* Half white over half black: 3/4 alpha, two thirds of the way to white */
+        int color = SinglePassRippleComposer.compositeOver(0x80FFFFFF, 0x80000000);
+        assertEquals(0xC0, Color.alpha(color));
+        assertEquals(0xAA, Color.red(color));
+    }
+
+    public void testFillMatchesTwoPass() {
+        mRipplePaint.setStyle(Paint.Style.FILL);
+        compareFrames();
+    }
+
+    public void testStrokeMatchesTwoPass() {
+        mRipplePaint.setStyle(Paint.Style.STROKE);
+        compareFrames();
+    }
+
+    private void compareFrames() {
+        float maxRadius = Math.max(WIDTH, HEIGHT) / 2;
+        int[][] colors = {
+                {Color.WHITE, Color.WHITE}, {Color.RED, Color.YELLOW}, {Color.BLACK, Color.GREEN}
+        };
+        for (int[] pair : colors) {
+            for (int frame = 0; frame <= FRAMES; frame += 5) {
+                float radius = maxRadius * frame / FRAMES;
+                mHighlightPaint.setColor(pair[0]);
+                mHighlightPaint.setAlpha(51 * frame / FRAMES);
+                mRipplePaint.setColor(pair[1]);
+                mRipplePaint.setAlpha(255 - 255 * frame / FRAMES);
+                float x = 30.0F + frame;
+                float y = 40.0F;
+                drawTwoPass(x, y, radius);
+                drawSinglePass(x, y, radius);
+                assertMatches("frame " + frame, x, y, radius);
+            }
+        }
+    }
+
+    private void drawTwoPass(float x, float y, float radius) {
+        mTwoPassCanvas.drawColor(BACKGROUND);
+        mTwoPassCanvas.drawRect(mBounds, mHighlightPaint);
+        mTwoPassCanvas.drawCircle(x, y, radius, mRipplePaint);
+    }
+
+    private void drawSinglePass(float x, float y, float radius) {
+        mSinglePassCanvas.drawColor(BACKGROUND);
+        mComposer.draw(mSinglePassCanvas, mBounds, x, y, radius, mHighlightPaint, mRipplePaint);
+    }
+
+    private void assertMatches(String message, float x, float y, float radius) {
+        float innerRadius = 0.0F;
+        float outerRadius = radius;
+        if (mRipplePaint.getStyle() == Paint.Style.STROKE) {
+            innerRadius = radius - STROKE_WIDTH / 2;
+            outerRadius = radius + STROKE_WIDTH / 2;
+        }
+        /* Colors on each side of the edges, blended as drawn over the background */
+        int outsideColor = SinglePassRippleComposer.compositeOver(mHighlightPaint.getColor(),
+                BACKGROUND);
+        int insideColor = SinglePassRippleComposer.compositeOver(mRipplePaint.getColor(),
+                outsideColor);
+        int edgeTolerance = (int)(getDifference(insideColor, outsideColor) * EDGE_COVERAGE)
+                + TOLERANCE;
+        int maxEdgeDifference = 0;
+        for (int py = 0; py < HEIGHT; py++) {
+            for (int px = 0; px < WIDTH; px++) {
+                int difference = getDifference(mTwoPassBitmap.getPixel(px, py),
+                        mSinglePassBitmap.getPixel(px, py));
+                float distance = (float)Math.hypot(px + 0.5F - x, py + 0.5F - y);
+                boolean edge = Math.abs(distance - outerRadius) < EDGE_DISTANCE
+                        || (innerRadius > 0.0F
+                                && Math.abs(distance - innerRadius) < EDGE_DISTANCE);
+                if (edge) {
+                    maxEdgeDifference = Math.max(maxEdgeDifference, difference);
+                    continue;
+                }
+                assertTrue(message + " pixel " + px + "," + py + " differs by " + difference,
+                        difference <= TOLERANCE);
+            }
+        }
+        assertTrue(message + " edge differs by " + maxEdgeDifference + ", more than "
+                + edgeTolerance, maxEdgeDifference <= edgeTolerance);
+    }
+
+    private static int getDifference(int color, int otherColor) {
+        int difference = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            difference = Math.max(difference, Math.abs(((color >>> shift) & 0xFF)
+                    - ((otherColor >>> shift) & 0xFF)));
+        }
+        return difference;
+    }
+
+    /**
+     * Times both ways of drawing a ripple growing over the whole view. The time per frame is the
+     * result; the pixels blended per frame are reported to explain it, not measured.
+     */
+    public void testFillRateBenchmark() {
+        mRipplePaint.setStyle(Paint.Style.FILL);
+        mHighlightPaint.setColor(Color.WHITE);
+        mHighlightPaint.setAlpha(51);
+        mRipplePaint.setColor(Color.WHITE);
+        mRipplePaint.setAlpha(128);
+        float maxRadius = Math.max(WIDTH, HEIGHT) / 2;
+        float x = WIDTH / 2;
+        float y = HEIGHT / 2;
+        long twoPassPixels = 0L;
+        long singlePassPixels = 0L;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            float radius = maxRadius * frame / FRAMES;
+            twoPassPixels += WIDTH * HEIGHT + countCovered(x, y, radius);
+            singlePassPixels += WIDTH * HEIGHT;
+        }
+        long twoPassNanos = 0L;
+        long singlePassNanos = 0L;
+        /* The first iteration warms up and is not timed */
+        for (int i = -1; i < ITERATIONS; i++) {
+            if (i == 0) {
+                twoPassNanos = 0L;
+                singlePassNanos = 0L;
+            }
+            for (int frame = 0; frame < FRAMES; frame++) {
+                float radius = maxRadius * frame / FRAMES;
+                long startNanoTime = System.nanoTime();
+                mTwoPassCanvas.drawRect(mBounds, mHighlightPaint);
+                mTwoPassCanvas.drawCircle(x, y, radius, mRipplePaint);
+                twoPassNanos += System.nanoTime() - startNanoTime;
+                startNanoTime = System.nanoTime();
+                mComposer.draw(mSinglePassCanvas, mBounds, x, y, radius, mHighlightPaint,
+                        mRipplePaint);
+                singlePassNanos += System.nanoTime() - startNanoTime;
+            }
+        }
+        int frames = FRAMES * ITERATIONS;
+        Log.i(TAG, "nanosPerFrame twoPass=" + (twoPassNanos / frames) + " singlePass="
+                + (singlePassNanos / frames) + " speedup="
+                + String.format(Locale.US, "%.2f", (double)twoPassNanos / singlePassNanos)
+                + "x pixelsPerFrame twoPass=" + (twoPassPixels / FRAMES) + " singlePass="
+                + (singlePassPixels / FRAMES));
+    }
+
+    /**
+     * Pixels of the view under the ripple, blended a second time by the two pass drawing.
+     */
+    private static int countCovered(float x, float y, float radius) {
+        int covered = 0;
+        for (int py = 0; py < HEIGHT; py++) {
+            for (int px = 0; px < WIDTH; px++) {
+                if (Math.hypot(px + 0.5F - x, py + 0.5F - y) <= radius) {
+                    covered++;
+                }
+            }
+        }
+        return covered;
+    }
+}
@@ -0,0 +1,148 @@
+package com.thomsonreuters.rippledecoratorview;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.test.AndroidTestCase;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of touch traces, and replays checked against the animations of the recording.
+ */
+public class TouchTraceTest extends AndroidTestCase {
+    private static final int SIZE = 100;
+
+    /** Longer than the long press timeout of every platform version */
+    private static final int LONG_PRESS_MILLIS = 1500;
+
+    /** Longer than the double tap timeout, so gestures are not taken for double taps */
+    private static final int GESTURE_GAP_MILLIS = 1000;
+
+    private static final long REPLAY_TIMEOUT_SECONDS = 20L;
+
+    private HandlerThread mThread;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mThread = new HandlerThread("TouchTraceTest");
+        mThread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mThread.quit();
+        super.tearDown();
+    }
+
+    public void testRoundTrip() throws IOException {
+        TouchTrace trace = new TouchTrace();
+        trace.append(TouchTrace.KIND_INTERCEPT, MotionEvent.ACTION_DOWN, 1000L, 1.5F, 2.5F);
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_MOVE, 1016L, 3.0F, 4.0F);
+        trace.append(TouchTrace.KIND_ANIMATION, RippleDecoratorView.Triggers.onTap.ordinal(),
+                1050L, 5.0F, 6.0F);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        trace.writeTo(outputStream);
+        TouchTrace read = TouchTrace.readFrom(new ByteArrayInputStream(outputStream
+                .toByteArray()));
+        assertEquals(trace.size(), read.size());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getKind(i), read.getKind(i));
+            assertEquals(trace.getCode(i), read.getCode(i));
+            assertEquals(trace.getTime(i), read.getTime(i));
+            assertEquals(trace.getX(i), read.getX(i), 0.0F);
+            assertEquals(trace.getY(i), read.getY(i), 0.0F);
+        }
+        assertEquals(50, read.getTime(2));
+    }
+
+    public void testRejectsOtherData() {
+        try {
+            TouchTrace.readFrom(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5}));
+            fail("Garbage read as a trace");
+        } catch (IOException e) {
+            /* Expected */
+        }
+    }
+
+    public void testRejectsUnknownRecords() throws IOException {
+        assertReadRejects((byte)3, MotionEvent.ACTION_DOWN);
+        assertReadRejects((byte)-1, MotionEvent.ACTION_DOWN);
+        assertReadRejects(TouchTrace.KIND_ANIMATION, RippleDecoratorView.Triggers.values().length);
+        assertReadRejects(TouchTrace.KIND_ANIMATION, -1);
+    }
+
+    /**
+     * A valid record followed by one read from another version of the format.
+     */
+    private static void assertReadRejects(byte kind, int code) throws IOException {
+        TouchTrace trace = new TouchTrace();
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_DOWN, 0, 50.0F, 50.0F);
+        trace.append(kind, code, 10, 50.0F, 50.0F);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        trace.writeTo(outputStream);
+        try {
+            TouchTrace.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+            fail("Unknown record read");
+        } catch (IOException e) {
+            /* Expected */
+        }
+    }
+
+    /**
+     * A tap starts an onTap ripple, a long press does not: the long press timeout has to fire
+     * between its down and up events for the replay to agree with the recording.
+     */
+    public void testReplayMatchesRecording() throws InterruptedException {
+        final TouchTrace trace = new TouchTrace();
+        int time = 0;
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_DOWN, time, 50.0F, 50.0F);
+        time += 50;
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_UP, time, 50.0F, 50.0F);
+        trace.append(TouchTrace.KIND_ANIMATION, RippleDecoratorView.Triggers.onTap.ordinal(),
+                time, 50.0F, 50.0F);
+        time += GESTURE_GAP_MILLIS;
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_DOWN, time, 20.0F, 20.0F);
+        for (int move = 0; move < 10; move++) {
+            time += LONG_PRESS_MILLIS / 10;
+            trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_MOVE, time, 20.0F, 20.0F);
+        }
+        trace.append(TouchTrace.KIND_TOUCH, MotionEvent.ACTION_UP, time, 20.0F, 20.0F);
+        final TouchTraceReplayer.Report[] reports = new TouchTraceReplayer.Report[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        new Handler(mThread.getLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                /* The view and its gesture detectors live on the looper of the replay */
+                RippleDecoratorView view = new RippleDecoratorView(getContext());
+                view.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+                view.layout(0, 0, SIZE, SIZE);
+                TouchTraceReplayer.replay(trace, view, new TouchTraceReplayer.OnReplayListener() {
+                    @Override
+                    public void onReplayFinished(TouchTraceReplayer.Report report) {
+                        reports[0] = report;
+                        done.countDown();
+                    }
+                });
+            }
+        });
+        assertTrue(done.await(REPLAY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        TouchTraceReplayer.Report report = reports[0];
+        assertEquals(14, report.getEvents());
+        for (RippleDecoratorView.Triggers trigger : RippleDecoratorView.Triggers.values()) {
+            assertEquals(trigger.name(), report.getRecordedAnimationStarts(trigger),
+                    report.getAnimationStarts(trigger));
+        }
+        assertEquals(1, report.getAnimationStarts(RippleDecoratorView.Triggers.onTap));
+        /* The ripple ran its frames through the pumped draw passes */
+        assertTrue(report.getInvalidations() > 1);
+        assertTrue(report.getFrames() > 0);
+    }
+}
@@ -0,0 +1,94 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+
+/**
+ * Renders the filled ripple once per animation into an alpha mask and then scales that mask for
+ * every frame. Drawing an alpha mask uses the color and alpha of the paint, so frames look the
+ * same as drawing the circle. The mask is drawn with bitmap filtering, so ripples larger than the
+ * mask are smoothly upscaled. Stroked ripples are drawn directly, as scaling would also scale the
+ * stroke width.
+ */
+public class CachedBitmapRippleRenderer implements RippleRenderer {
+    /** Largest mask side in pixels, bigger ripples are upscaled from it */
+    private static final int MAX_MASK_SIZE = 512;
+
+    private final Paint mMaskPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint mBitmapPaint = new Paint();
+
+    private final Rect mMaskBounds = new Rect();
+
+    private final RectF mDestination = new RectF();
+
+    private Bitmap mMask;
+
+    private int mMaskSize = 0;
+
+    @Override
+    public void onAnimationStart(View view, float x, float y, float maxRadius, Paint ripplePaint) {
+        if (ripplePaint.getStyle() != Paint.Style.FILL) {
+            return;
+        }
+        int maskSize = Math.max(1, Math.min(MAX_MASK_SIZE, (int)Math.ceil(maxRadius * 2)));
+        if (mMask != null && maskSize == mMaskSize) {
+            return;
+        }
+        if (mMask != null) {
+            mMask.recycle();
+        }
+        mMask = Bitmap.createBitmap(maskSize, maskSize, Bitmap.Config.ALPHA_8);
+        mMaskSize = maskSize;
+        mMaskBounds.set(0, 0, maskSize, maskSize);
+        float maskRadius = maskSize / 2.0F;
+        new Canvas(mMask).drawCircle(maskRadius, maskRadius, maskRadius, mMaskPaint);
+    }
+
+    @Override
+    public void drawHighlight(Canvas canvas, Rect bounds, Paint paint) {
+        canvas.drawRect(bounds, paint);
+    }
+
+    @Override
+    public void drawRipple(Canvas canvas, float x, float y, float radius, Paint paint) {
+        if (mMask == null || paint.getStyle() != Paint.Style.FILL) {
+            canvas.drawCircle(x, y, radius, paint);
+            return;
+        }
+        mDestination.set(x - radius, y - radius, x + radius, y + radius);
+        /* Copy of the ripple paint, so filtering does not leak into the other draws */
+        mBitmapPaint.set(paint);
+        mBitmapPaint.setFilterBitmap(true);
+        canvas.drawBitmap(mMask, mMaskBounds, mDestination, mBitmapPaint);
+    }
+
+    @Override
+    public void drawRipplePath(Canvas canvas, Path path, Paint paint) {
+        canvas.drawPath(path, paint);
+    }
+
+    @Override
+    public void onAnimationEnd() {
+        /* The mask is kept for the next animation of the same size */
+    }
+}
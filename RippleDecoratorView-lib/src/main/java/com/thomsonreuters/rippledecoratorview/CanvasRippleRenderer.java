@@ -0,0 +1,49 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.view.View;
+
+/**
+ * Draws the highlight as a rectangle and the ripple as a circle directly on the canvas.
+ */
+public class CanvasRippleRenderer implements RippleRenderer {
+    @Override
+    public void onAnimationStart(View view, float x, float y, float maxRadius, Paint ripplePaint) {
+    }
+
+    @Override
+    public void drawHighlight(Canvas canvas, Rect bounds, Paint paint) {
+        canvas.drawRect(bounds, paint);
+    }
+
+    @Override
+    public void drawRipple(Canvas canvas, float x, float y, float radius, Paint paint) {
+        canvas.drawCircle(x, y, radius, paint);
+    }
+
+    @Override
+    public void drawRipplePath(Canvas canvas, Path path, Paint paint) {
+        canvas.drawPath(path, paint);
+    }
+
+    @Override
+    public void onAnimationEnd() {
+    }
+}
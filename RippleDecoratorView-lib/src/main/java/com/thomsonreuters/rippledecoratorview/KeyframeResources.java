@@ -0,0 +1,65 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.content.res.Resources;
+import android.util.SparseArray;
+
+import com.thomsonreuters.rippledecoratorview.core.KeyframeTracks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads keyframe tracks from raw resources, keeping them to be shared by all the views using them.
+ */
+final class KeyframeResources {
+    private static final SparseArray<KeyframeTracks> sResourceCache =
+            new SparseArray<KeyframeTracks>();
+
+    private KeyframeResources() {
+    }
+
+    /**
+     * Loads tracks from a raw resource. Each resource is read once. Must be called from the UI
+     * thread.
+     *
+     * @param resources resources
+     * @param resourceId raw resource id
+     * @return tracks
+     * @throws Resources.NotFoundException if the resource is missing or not valid tracks
+     */
+    static KeyframeTracks load(Resources resources, int resourceId) {
+        KeyframeTracks tracks = sResourceCache.get(resourceId);
+        if (tracks != null) {
+            return tracks;
+        }
+        InputStream inputStream = resources.openRawResource(resourceId);
+        try {
+            tracks = KeyframeTracks.readFrom(inputStream);
+        } catch (IOException e) {
+            throw new Resources.NotFoundException("Invalid keyframe tracks resource "
+                    + resourceId + ": " + e.getMessage());
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                /* Nothing left to read */
+            }
+        }
+        sResourceCache.put(resourceId, tracks);
+        return tracks;
+    }
+}
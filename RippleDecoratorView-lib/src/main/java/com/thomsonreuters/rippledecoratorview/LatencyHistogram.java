@@ -0,0 +1,99 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+/**
+ * Histogram of latencies with one bucket per millisecond. Latencies of a second or more share the
+ * last bucket. Recording never allocates.
+ */
+public final class LatencyHistogram {
+    /** Latencies from this value on share the last bucket */
+    public static final int MAX_MILLIS = 1000;
+
+    private final int[] mBuckets = new int[MAX_MILLIS + 1];
+
+    private int mCount = 0;
+
+    private long mMaxMillis = 0L;
+
+    /**
+     * Adds a latency.
+     *
+     * @param millis latency in milliseconds, negative values count as 0
+     */
+    public void record(long millis) {
+        long clamped = Math.max(0L, millis);
+        mBuckets[(int)Math.min(MAX_MILLIS, clamped)]++;
+        mCount++;
+        mMaxMillis = Math.max(mMaxMillis, clamped);
+    }
+
+    /**
+     * Get the number of latencies recorded.
+     *
+     * @return count
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get the highest latency recorded.
+     *
+     * @return latency in milliseconds
+     */
+    public long getMaxMillis() {
+        return mMaxMillis;
+    }
+
+    /**
+     * Get the latency under which a percentage of the recorded latencies fall.
+     *
+     * @param percentile percentage (0, 100]
+     * @return latency in milliseconds, {@link #MAX_MILLIS} if it falls in the last bucket, or -1
+     *         if nothing was recorded
+     */
+    public int getPercentile(float percentile) {
+        if (mCount == 0) {
+            return -1;
+        }
+        int rank = Math.max(1, (int)Math.ceil(mCount * percentile / 100.0F));
+        int seen = 0;
+        for (int millis = 0; millis < mBuckets.length; millis++) {
+            seen += mBuckets[millis];
+            if (seen >= rank) {
+                return millis;
+            }
+        }
+        return MAX_MILLIS;
+    }
+
+    /**
+     * Removes all recorded latencies.
+     */
+    public void clear() {
+        for (int i = 0; i < mBuckets.length; i++) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mMaxMillis = 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + mCount + " p50=" + getPercentile(50) + "ms p95=" + getPercentile(95)
+                + "ms p99=" + getPercentile(99) + "ms max=" + mMaxMillis + "ms";
+    }
+}
@@ -0,0 +1,130 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+/**
+ * Immutable snapshot of the configuration that can be changed from any thread: colors, style,
+ * alphas, centering, padding and radius. Changes create a new snapshot that is swapped in
+ * atomically and applied on the UI thread.
+ */
+final class RippleConfig {
+    /**
+     * Change applied to the latest snapshot, retried if another thread swaps it first.
+     */
+    abstract static class Edit {
+        abstract RippleConfig apply(RippleConfig config);
+    }
+
+    private final int mRippleColor;
+
+    private final int mHighlightColor;
+
+    private final RippleDecoratorView.Styles mRippleStyle;
+
+    private final float mRippleMaxAlpha;
+
+    private final float mHighlightMaxAlpha;
+
+    private final boolean mRippleCentered;
+
+    private final int mRipplePadding;
+
+    private final float mRippleRadius;
+
+    RippleConfig(int rippleColor, int highlightColor, RippleDecoratorView.Styles rippleStyle,
+            float rippleMaxAlpha, float highlightMaxAlpha, boolean rippleCentered,
+            int ripplePadding, float rippleRadius) {
+        this.mRippleColor = rippleColor;
+        this.mHighlightColor = highlightColor;
+        this.mRippleStyle = rippleStyle;
+        this.mRippleMaxAlpha = rippleMaxAlpha;
+        this.mHighlightMaxAlpha = highlightMaxAlpha;
+        this.mRippleCentered = rippleCentered;
+        this.mRipplePadding = ripplePadding;
+        this.mRippleRadius = rippleRadius;
+    }
+
+    int getRippleColor() {
+        return mRippleColor;
+    }
+
+    int getHighlightColor() {
+        return mHighlightColor;
+    }
+
+    RippleDecoratorView.Styles getRippleStyle() {
+        return mRippleStyle;
+    }
+
+    float getRippleMaxAlpha() {
+        return mRippleMaxAlpha;
+    }
+
+    float getHighlightMaxAlpha() {
+        return mHighlightMaxAlpha;
+    }
+
+    boolean isRippleCentered() {
+        return mRippleCentered;
+    }
+
+    int getRipplePadding() {
+        return mRipplePadding;
+    }
+
+    float getRippleRadius() {
+        return mRippleRadius;
+    }
+
+    RippleConfig withRippleColor(int rippleColor) {
+        return new RippleConfig(rippleColor, mHighlightColor, mRippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withHighlightColor(int highlightColor) {
+        return new RippleConfig(mRippleColor, highlightColor, mRippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withRippleStyle(RippleDecoratorView.Styles rippleStyle) {
+        return new RippleConfig(mRippleColor, mHighlightColor, rippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withRippleMaxAlpha(float rippleMaxAlpha) {
+        return new RippleConfig(mRippleColor, mHighlightColor, mRippleStyle, rippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withHighlightMaxAlpha(float highlightMaxAlpha) {
+        return new RippleConfig(mRippleColor, mHighlightColor, mRippleStyle, mRippleMaxAlpha,
+                highlightMaxAlpha, mRippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withRippleCentered(boolean rippleCentered) {
+        return new RippleConfig(mRippleColor, mHighlightColor, mRippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, rippleCentered, mRipplePadding, mRippleRadius);
+    }
+
+    RippleConfig withRipplePadding(int ripplePadding) {
+        return new RippleConfig(mRippleColor, mHighlightColor, mRippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, ripplePadding, mRippleRadius);
+    }
+
+    RippleConfig withRippleRadius(float rippleRadius) {
+        return new RippleConfig(mRippleColor, mHighlightColor, mRippleStyle, mRippleMaxAlpha,
+                mHighlightMaxAlpha, mRippleCentered, mRipplePadding, rippleRadius);
+    }
+}
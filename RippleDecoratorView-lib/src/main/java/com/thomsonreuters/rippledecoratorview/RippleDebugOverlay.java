@@ -0,0 +1,132 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Collects frame timings of a {@link RippleDecoratorView} and draws them on top of it. All
+ * buffers are allocated upfront so that collecting and drawing do not allocate per frame.
+ */
+final class RippleDebugOverlay {
+    private static final int RING_SIZE = 64;
+
+    private static final int TEXT_BUFFER_SIZE = 64;
+
+    private static final float TEXT_SIZE_DP = 10.0F;
+
+    private final long[] mIntervals = new long[RING_SIZE];
+
+    private int mIntervalIndex = 0;
+
+    private int mIntervalCount = 0;
+
+    private long mLastFrameNanoTime = 0L;
+
+    private int mFramesDrawn = 0;
+
+    private int mFramesPlanned = 0;
+
+    private float mFrameDuration = 0.0F;
+
+    private float mRippleX = 0.0F;
+
+    private float mRippleY = 0.0F;
+
+    private float mRippleRadius = 0.0F;
+
+    private final StringBuilder mTextBuilder = new StringBuilder(TEXT_BUFFER_SIZE);
+
+    private final char[] mTextBuffer = new char[TEXT_BUFFER_SIZE];
+
+    private final Paint mTextPaint;
+
+    private final Paint mBoundsPaint;
+
+    private final float mLineHeight;
+
+    RippleDebugOverlay(float density) {
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setColor(Color.YELLOW);
+        mTextPaint.setTextSize(TEXT_SIZE_DP * density);
+        mBoundsPaint = new Paint();
+        mBoundsPaint.setColor(Color.YELLOW);
+        mBoundsPaint.setStyle(Paint.Style.STROKE);
+        mLineHeight = TEXT_SIZE_DP * density * 1.2F;
+    }
+
+    void onAnimationStart(int framesPlanned, float frameDuration) {
+        mFramesPlanned = framesPlanned;
+        mFrameDuration = frameDuration;
+        mFramesDrawn = 0;
+        mIntervalCount = 0;
+        mIntervalIndex = 0;
+        mLastFrameNanoTime = 0L;
+    }
+
+    void onFrame(long frameNanoTime, float rippleX, float rippleY, float rippleRadius) {
+        if (mLastFrameNanoTime != 0L) {
+            mIntervals[mIntervalIndex] = frameNanoTime - mLastFrameNanoTime;
+            mIntervalIndex = (mIntervalIndex + 1) % RING_SIZE;
+            mIntervalCount = Math.min(mIntervalCount + 1, RING_SIZE);
+        }
+        mLastFrameNanoTime = frameNanoTime;
+        mFramesDrawn++;
+        mRippleX = rippleX;
+        mRippleY = rippleY;
+        mRippleRadius = rippleRadius;
+    }
+
+    void draw(Canvas canvas, int runningAnimations) {
+        long total = 0L;
+        long max = 0L;
+        for (int i = 0; i < mIntervalCount; i++) {
+            total += mIntervals[i];
+            max = Math.max(max, mIntervals[i]);
+        }
+        long mean = mIntervalCount == 0 ? 0L : total / mIntervalCount;
+        float y = mLineHeight;
+        mTextBuilder.setLength(0);
+        mTextBuilder.append("frame ");
+        appendTenths(mean / 100000L);
+        mTextBuilder.append('/');
+        appendTenths((long)(mFrameDuration * 10.0F));
+        mTextBuilder.append(" max ");
+        appendTenths(max / 100000L);
+        mTextBuilder.append("ms");
+        drawLine(canvas, y);
+        y += mLineHeight;
+        mTextBuilder.setLength(0);
+        mTextBuilder.append("drawn ").append(mFramesDrawn).append('/').append(mFramesPlanned);
+        mTextBuilder.append(" running ").append(runningAnimations);
+        drawLine(canvas, y);
+        if (mRippleRadius > 0.0F) {
+            canvas.drawRect(mRippleX - mRippleRadius, mRippleY - mRippleRadius, mRippleX
+                    + mRippleRadius, mRippleY + mRippleRadius, mBoundsPaint);
+        }
+    }
+
+    private void appendTenths(long tenths) {
+        mTextBuilder.append(tenths / 10L).append('.').append(tenths % 10L);
+    }
+
+    private void drawLine(Canvas canvas, float y) {
+        int length = Math.min(mTextBuilder.length(), TEXT_BUFFER_SIZE);
+        mTextBuilder.getChars(0, length, mTextBuffer, 0);
+        canvas.drawText(mTextBuffer, 0, length, 0.0F, y, mTextPaint);
+    }
+}
@@ -19,16 +19,30 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.os.Build;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
 import android.view.animation.Animation;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 import android.view.animation.ScaleAnimation;
 import android.widget.RelativeLayout;
 
+import com.thomsonreuters.rippledecoratorview.core.KeyframeTracks;
+import com.thomsonreuters.rippledecoratorview.core.RippleFrames;
+import com.thomsonreuters.rippledecoratorview.core.RippleInterpolator;
+import com.thomsonreuters.rippledecoratorview.core.RippleStateMachine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class RippleDecoratorView extends RelativeLayout {
     public static final float NANOS_TO_MILLIS = 1000000.0F;
 
@@ -72,6 +86,62 @@ public class RippleDecoratorView extends RelativeLayout {
         }
     }
 
+    public enum Renderers {
+        AUTO, CANVAS, RIPPLE_DRAWABLE, CACHED_BITMAP;
+        private static Renderers fromOrdinal(int ord) {
+            switch (ord) {
+                case 1:
+                    return CANVAS;
+                case 2:
+                    return RIPPLE_DRAWABLE;
+                case 3:
+                    return CACHED_BITMAP;
+                default:
+                    return AUTO;
+            }
+        }
+    }
+
+    public enum NestedTouchModes {
+        ALWAYS, INNERMOST;
+        private static NestedTouchModes fromOrdinal(int ord) {
+            switch (ord) {
+                case 1:
+                    return INNERMOST;
+                default:
+                    return ALWAYS;
+            }
+        }
+    }
+
+    /**
+     * Receives the touch events, animation starts and invalidations of a view, used to record and
+     * replay touch traces.
+     */
+    public interface OnTraceListener {
+        /**
+         * Called for every event reaching the view, before any trigger is resolved.
+         *
+         * @param event touch event
+         * @param intercepted true if the event came through onInterceptTouchEvent
+         */
+        void onTraceTouchEvent(MotionEvent event, boolean intercepted);
+
+        /**
+         * Called when the ripple/highlight animation starts.
+         *
+         * @param trigger trigger that started the animation, none if started programmatically
+         * @param x center of the animation in the x axis
+         * @param y center of the animation in the y axis
+         */
+        void onTraceAnimationStart(Triggers trigger, float x, float y);
+
+        /**
+         * Called every time the animation requests a new frame.
+         */
+        void onTraceInvalidate();
+    }
+
     public static final int RIPPLE_COLOR = Color.WHITE;
 
     public static final Styles RIPPLE_STYLE = Styles.STROKE;
@@ -90,6 +160,14 @@ public class RippleDecoratorView extends RelativeLayout {
 
     public static final int RIPPLE_ANIMATION_FRAMES = 60;
 
+    public static final boolean RIPPLE_SPECULATIVE = false;
+
+    public static final float SPECULATIVE_FADE_DURATION = 100.0F;
+
+    public static final int RIPPLE_WAVE_COUNT = 1;
+
+    public static final int RIPPLE_WAVE_STAGGER = -1;
+
     public static final boolean ZOOM_ANIMATION = false;
 
     public static final Triggers ZOOM_ANIMATION_TRIGGER = Triggers.onTap;
@@ -100,6 +178,26 @@ public class RippleDecoratorView extends RelativeLayout {
 
     public static final float HIGHLIGHT_MAX_ALPHA = 0.2F;
 
+    public static final boolean DEBUG_OVERLAY = false;
+
+    public static final boolean ADAPTIVE_QUALITY = false;
+
+    public static final boolean SINGLE_PASS_COMPOSITION = false;
+
+    public static final Renderers RENDERER = Renderers.AUTO;
+
+    private static final RippleRenderer CANVAS_RENDERER = new CanvasRippleRenderer();
+
+    private static Renderers sDefaultRenderer = RENDERER;
+
+    public static final NestedTouchModes NESTED_TOUCH_MODE = NestedTouchModes.ALWAYS;
+
+    private static NestedTouchModes sDefaultNestedTouchMode = NESTED_TOUCH_MODE;
+
+    private static final int REQUEST_QUEUE_CAPACITY = 32;
+
+    private static int sRunningAnimations = 0;
+
     private int mRippleColor;
 
     private Styles mRippleStyle = RIPPLE_STYLE;
@@ -120,6 +218,12 @@ public class RippleDecoratorView extends RelativeLayout {
 
     private int mRippleAnimationPeakFrame;
 
+    private boolean mRippleSpeculative = RIPPLE_SPECULATIVE;
+
+    private int mRippleWaveCount = RIPPLE_WAVE_COUNT;
+
+    private int mRippleWaveStagger = RIPPLE_WAVE_STAGGER;
+
     private boolean mZoomAnimation = ZOOM_ANIMATION;
 
     private Triggers mZoomAnimationTrigger = ZOOM_ANIMATION_TRIGGER;
@@ -140,7 +244,28 @@ public class RippleDecoratorView extends RelativeLayout {
 
     private Interpolator mZoomInterpolator = new LinearInterpolator();
 
-    private long mAnimationStartNanoTime = 0L;
+    private final RippleInterpolator mFrameInterpolator = new RippleInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return mInterpolator.getInterpolation(input);
+        }
+    };
+
+    private KeyframeTracks mKeyframeTracks;
+
+    private Renderers mRenderer;
+
+    private RippleRenderer mRippleRenderer;
+
+    private RippleRenderer mActiveRenderer = CANVAS_RENDERER;
+
+    private Renderers mActiveRendererType;
+
+    private boolean mIsMeasuringRenderer = false;
+
+    private CachedBitmapRippleRenderer mCachedBitmapRenderer;
+
+    private RippleDrawableRenderer mRippleDrawableRenderer;
 
     private int mWidth;
 
@@ -148,9 +273,18 @@ public class RippleDecoratorView extends RelativeLayout {
 
     private float mFrameDuration;
 
+    private int mWaveStagger;
+
+    private int mTrainFrames;
+
+    private float mTrainDuration;
+
+    /** Radius of the running animation, resolved from mRippleRadius when it starts */
+    private float mAnimationRadius = 0.0F;
+
     private Handler mCanvasHandler;
 
-    private boolean mIsAnimationRunning = false;
+    private final RippleStateMachine mStateMachine = new RippleStateMachine();
 
     private int mCurrentFrame = 0;
 
@@ -164,14 +298,67 @@ public class RippleDecoratorView extends RelativeLayout {
 
     private Paint mHighlightPaint;
 
+    private final Path mWavePath = new Path();
+
+    private SinglePassRippleComposer mSinglePassComposer;
+
     private GestureDetector mDownGestureDetector;
 
     private GestureDetector mTapGestureDetector;
 
+    private OnTraceListener mOnTraceListener;
+
+    private NestedTouchModes mNestedTouchMode;
+
+    private boolean mIsTouchLeftToDescendant = false;
+
+    /** Event last seen through onInterceptTouchEvent, until the next onTouchEvent */
+    private MotionEvent mInterceptedEvent;
+
+    private RippleDebugOverlay mDebugOverlay;
+
+    private RippleLatencyTracker mLatencyTracker;
+
+    private Triggers mAnimationTrigger = Triggers.none;
+
+    private long mAnimationEventTime = 0L;
+
+    private long mAnimationDownTime = 0L;
+
+    private long mFirstFrameTime = 0L;
+
+    private boolean mIsLatencyPending = false;
+
+    private boolean mIsLatencyAwaitingTap = false;
+
+    private RippleQualityGovernor mQualityGovernor;
+
+    private RippleQualityGovernor.Tiers mQualityTier = RippleQualityGovernor.Tiers.FULL;
+
+    private long mLastFrameNanoTime = 0L;
+
+    private final RippleRequestQueue mRequestQueue = new RippleRequestQueue(REQUEST_QUEUE_CAPACITY);
+
+    private final AtomicReference<RippleConfig> mRequestedConfig =
+            new AtomicReference<RippleConfig>();
+
+    private RippleConfig mAppliedConfig;
+
+    private final AtomicBoolean mIsDrainScheduled = new AtomicBoolean(false);
+
+    private Runnable drainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drainRequests();
+        }
+    };
+
+    private boolean mIsIntercepting = false;
+
     private Runnable invalidateRunnable = new Runnable() {
         @Override
         public void run() {
-            invalidate();
+            invalidateAnimation();
         }
     };
 
@@ -205,6 +392,10 @@ public class RippleDecoratorView extends RelativeLayout {
         }
         initPaints();
         initGestures(context);
+        mAppliedConfig = new RippleConfig(mRippleColor, mHighlighColor, mRippleStyle,
+                mRippleMaxAlpha, mHighlightMaxAlpha, mRippleCentered, mRipplePadding,
+                mRippleRadius);
+        mRequestedConfig.set(mAppliedConfig);
         mCanvasHandler = new Handler();
     }
 
@@ -227,6 +418,18 @@ public class RippleDecoratorView extends RelativeLayout {
                     public boolean onSingleTapConfirmed(MotionEvent e) {
                         return true;
                     }
+
+                    @Override
+                    public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX,
+                            float distanceY) {
+                        abortSpeculation();
+                        return false;
+                    }
+
+                    @Override
+                    public void onLongPress(MotionEvent e) {
+                        abortSpeculation();
+                    }
                 });
     }
 
@@ -264,6 +467,12 @@ public class RippleDecoratorView extends RelativeLayout {
         mRippleAnimationPeakFrame = typedArray.getInt(
                 R.styleable.RippleDecoratorView_rdv_rippleAnimationPeakFrame,
                 mRippleAnimationFrames);
+        mRippleSpeculative = typedArray.getBoolean(
+                R.styleable.RippleDecoratorView_rdv_rippleSpeculative, mRippleSpeculative);
+        mRippleWaveCount = Math.max(1, typedArray.getInt(
+                R.styleable.RippleDecoratorView_rdv_rippleWaveCount, mRippleWaveCount));
+        mRippleWaveStagger = typedArray.getInt(
+                R.styleable.RippleDecoratorView_rdv_rippleWaveStagger, mRippleWaveStagger);
         mZoomAnimation = typedArray.getBoolean(R.styleable.RippleDecoratorView_rdv_zoomAnimation,
                 mZoomAnimation);
         mZoomAnimationTrigger = Triggers.fromOrdinal(typedArray.getInt(
@@ -283,81 +492,227 @@ public class RippleDecoratorView extends RelativeLayout {
         mHighlightAnimationPeakFrame = typedArray.getInt(
                 R.styleable.RippleDecoratorView_rdv_highlightAnimationPeakFrame,
                 mRippleAnimationFrames);
+        int keyframesId = typedArray.getResourceId(
+                R.styleable.RippleDecoratorView_rdv_rippleKeyframes, 0);
+        if (keyframesId != 0) {
+            mKeyframeTracks = KeyframeResources.load(getResources(), keyframesId);
+        }
+        if (typedArray.hasValue(R.styleable.RippleDecoratorView_rdv_nestedTouchMode)) {
+            mNestedTouchMode = NestedTouchModes.fromOrdinal(typedArray.getInt(
+                    R.styleable.RippleDecoratorView_rdv_nestedTouchMode,
+                    NESTED_TOUCH_MODE.ordinal()));
+        }
+        if (typedArray.hasValue(R.styleable.RippleDecoratorView_rdv_renderer)) {
+            mRenderer = Renderers.fromOrdinal(typedArray.getInt(
+                    R.styleable.RippleDecoratorView_rdv_renderer, RENDERER.ordinal()));
+        }
+        setDebugOverlay(typedArray.getBoolean(R.styleable.RippleDecoratorView_rdv_debugOverlay,
+                DEBUG_OVERLAY));
+        setSinglePassComposition(typedArray.getBoolean(
+                R.styleable.RippleDecoratorView_rdv_singlePassComposition,
+                SINGLE_PASS_COMPOSITION));
+        if (typedArray.getBoolean(R.styleable.RippleDecoratorView_rdv_adaptiveQuality,
+                ADAPTIVE_QUALITY)) {
+            mQualityGovernor = RippleQualityGovernor.getDefault(getContext());
+        }
         typedArray.recycle();
     }
 
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
-        if (mIsAnimationRunning) {
-            float deltaMilliseconds = (System.nanoTime() - mAnimationStartNanoTime)
-                    / NANOS_TO_MILLIS;
-            if (mRippleAnimationDuration <= deltaMilliseconds) {
-                mIsAnimationRunning = false;
+        if (mStateMachine.isRunning()) {
+            long frameNanoTime = System.nanoTime();
+            if (mStateMachine.isFinished(frameNanoTime, mTrainDuration,
+                    SPECULATIVE_FADE_DURATION)) {
+                mStateMachine.stop();
+                sRunningAnimations--;
+                mActiveRenderer.onAnimationEnd();
                 mCurrentFrame = 0;
                 canvas.restore();
-                mAnimationStartNanoTime = 0;
-                invalidate();
+                invalidateAnimation();
             } else {
-                mCanvasHandler.postDelayed(invalidateRunnable, (long)mFrameDuration);
-                validateAnimation(mRippleAnimationFrames, mRippleAnimationPeakFrame,
+                mCanvasHandler.postDelayed(invalidateRunnable, getFrameDelay());
+                if (mQualityGovernor != null) {
+                    if (mLastFrameNanoTime != 0L) {
+                        mQualityGovernor.recordFrame(frameNanoTime - mLastFrameNanoTime,
+                                getFrameDelay() * (long)NANOS_TO_MILLIS);
+                    }
+                    mLastFrameNanoTime = frameNanoTime;
+                }
+                RippleFrames.validateAnimation(mRippleAnimationFrames, mRippleAnimationPeakFrame,
                         mHighlightAnimation, mHighlightAnimationPeakFrame);
                 if (mCurrentFrame == 0) {
                     canvas.save();
                 }
-                mCurrentFrame = (int)(deltaMilliseconds / mFrameDuration);
+                mCurrentFrame = RippleFrames.getFrame(
+                        mStateMachine.getElapsedMilliseconds(frameNanoTime), mFrameDuration);
+                float speculationFade = mStateMachine.getSpeculationFade(frameNanoTime,
+                        SPECULATIVE_FADE_DURATION);
+                if (mIsLatencyPending) {
+                    mIsLatencyPending = false;
+                    mFirstFrameTime = SystemClock.uptimeMillis();
+                    if (!mIsLatencyAwaitingTap) {
+                        mLatencyTracker.record(mAnimationTrigger,
+                                mFirstFrameTime - mAnimationEventTime,
+                                mFirstFrameTime - mAnimationDownTime);
+                    }
+                }
                 /* Java integer division returns an integer #justjavathings */
-                if (mHighlightAnimation) {
-                    Paint highLightPaint = preparePaintHighlight(mHighlightPaint, mCurrentFrame,
-                            mRippleAnimationFrames, mHighlightAnimationPeakFrame,
-                            mHighlightMaxAlpha, mInterpolator);
-                    canvas.drawRect(canvas.getClipBounds(), highLightPaint);
+                Paint highLightPaint = null;
+                if (mHighlightAnimation
+                        && !isQualityTier(RippleQualityGovernor.Tiers.NO_HIGHLIGHT)) {
+                    if (hasKeyframeTrack(KeyframeTracks.TRACK_HIGHLIGHT)) {
+                        highLightPaint = mHighlightPaint;
+                        highLightPaint.setAlpha((int)(mHighlightMaxAlpha * mKeyframeTracks.sample(
+                                KeyframeTracks.TRACK_HIGHLIGHT, mCurrentFrame, mTrainFrames)));
+                    } else {
+                        highLightPaint = preparePaintHighlight(mHighlightPaint, mCurrentFrame,
+                                mTrainFrames, mHighlightAnimationPeakFrame,
+                                mHighlightMaxAlpha, mFrameInterpolator);
+                    }
+                    if (speculationFade < 1.0F) {
+                        highLightPaint.setAlpha((int)(highLightPaint.getAlpha() * speculationFade));
+                    }
+                }
+                Paint ripplePaint;
+                if (hasKeyframeTrack(KeyframeTracks.TRACK_ALPHA)) {
+                    ripplePaint = mRipplePaint;
+                    ripplePaint.setAlpha((int)(mRippleMaxAlpha * mKeyframeTracks.sample(
+                            KeyframeTracks.TRACK_ALPHA, mCurrentFrame, mTrainFrames)));
+                } else {
+                    /* Wave trains share one paint, faded over the whole train */
+                    ripplePaint = preparePaintRipple(mRipplePaint, mCurrentFrame, mTrainFrames,
+                            mRippleAnimationPeakFrame, mRippleMaxAlpha, mFrameDuration,
+                            mTrainDuration);
+                }
+                if (speculationFade < 1.0F) {
+                    ripplePaint.setAlpha((int)(ripplePaint.getAlpha() * speculationFade));
+                }
+                float radius = getRippleRadius(mCurrentFrame);
+                if (highLightPaint != null && isSinglePassComposable()) {
+                    mSinglePassComposer.draw(canvas, canvas.getClipBounds(), mPositionX,
+                            mPositionY, radius, highLightPaint, ripplePaint);
+                } else {
+                    if (highLightPaint != null) {
+                        mActiveRenderer.drawHighlight(canvas, canvas.getClipBounds(),
+                                highLightPaint);
+                    }
+                    if (mRippleWaveCount > 1) {
+                        drawRippleWaves(canvas, ripplePaint);
+                    } else {
+                        /* Only the call that differs between renderers is measured */
+                        long renderStartNanoTime = mIsMeasuringRenderer ? System.nanoTime() : 0L;
+                        mActiveRenderer.drawRipple(canvas, mPositionX, mPositionY, radius,
+                                ripplePaint);
+                        if (mIsMeasuringRenderer) {
+                            RippleRendererSelector.recordFrame(mActiveRendererType,
+                                    System.nanoTime() - renderStartNanoTime);
+                        }
+                    }
+                }
+                if (mDebugOverlay != null) {
+                    mDebugOverlay.onFrame(frameNanoTime, mPositionX, mPositionY, radius);
                 }
-                Paint highLightPaint = preparePaintRipple(mRipplePaint, mCurrentFrame,
-                        mRippleAnimationFrames, mRippleAnimationPeakFrame, mRippleMaxAlpha,
-                        mFrameDuration, mRippleAnimationDuration);
-                canvas.drawCircle(
-                        mPositionX,
-                        mPositionY,
-                        (mRippleRadius * (((float)mCurrentFrame * mFrameDuration) / mRippleAnimationDuration)),
-                        highLightPaint);
             }
         }
+        if (mDebugOverlay != null) {
+            mDebugOverlay.draw(canvas, sRunningAnimations);
+        }
+    }
+
+    /**
+     * Only the canvas renderer is replaced by the composition, other renderers own how they
+     * draw, and a train of waves does not fit in one gradient.
+     */
+    private boolean isSinglePassComposable() {
+        return mSinglePassComposer != null && mActiveRenderer == CANVAS_RENDERER
+                && mRippleWaveCount == 1;
+    }
+
+    private long getFrameDelay() {
+        if (isQualityTier(RippleQualityGovernor.Tiers.REDUCED_FRAME_RATE)) {
+            return Math.max((long)mFrameDuration, 1000L / RippleQualityGovernor.REDUCED_FRAME_RATE);
+        }
+        return (long)mFrameDuration;
+    }
+
+    /**
+     * Whether the running animation is degraded down to a tier or below.
+     */
+    private boolean isQualityTier(RippleQualityGovernor.Tiers tier) {
+        return mQualityTier.ordinal() >= tier.ordinal();
     }
 
-    private void validateAnimation(int animationFrames, int rippleAnimationPeakFrame,
-            boolean highlightAnimation, int highlightAnimationPeakFrame) {
-        if (animationFrames <= 0) {
-            throw new IllegalArgumentException("Animation frames need to be higher than 0");
+    private void captureQualityTier() {
+        mQualityTier = mQualityGovernor != null ? mQualityGovernor.getTier()
+                : RippleQualityGovernor.Tiers.FULL;
+    }
+
+    /**
+     * The zoom follows the tier captured by the running ripple, or captures it when it starts
+     * alone.
+     */
+    private void startZoomAnimation() {
+        if (!mStateMachine.isRunning()) {
+            captureQualityTier();
         }
-        if ((highlightAnimation && highlightAnimationPeakFrame > animationFrames)
-                || rippleAnimationPeakFrame > animationFrames) {
-            throw new IllegalArgumentException("Peak frames cannot be higher than total frames");
+        if (!isQualityTier(RippleQualityGovernor.Tiers.NO_ZOOM)) {
+            this.startAnimation(mScaleAnimation);
         }
     }
 
+    private float getRippleRadius(int frame) {
+        if (hasKeyframeTrack(KeyframeTracks.TRACK_RADIUS)) {
+            return mAnimationRadius
+                    * mKeyframeTracks.sample(KeyframeTracks.TRACK_RADIUS, frame,
+                            mRippleAnimationFrames);
+        }
+        return RippleFrames.getRippleRadius(mAnimationRadius, frame, mFrameDuration,
+                mRippleAnimationDuration);
+    }
+
+    /**
+     * All the waves started so far go into one reused path so the train is a single draw call.
+     * Filled waves use even-odd filling, which turns the overlapping circles into bands.
+     */
+    private void drawRippleWaves(Canvas canvas, Paint paint) {
+        mWavePath.rewind();
+        mWavePath.setFillType(mRippleStyle == Styles.FILL ? Path.FillType.EVEN_ODD
+                : Path.FillType.WINDING);
+        for (int wave = 0; wave < mRippleWaveCount; wave++) {
+            /* Every wave grows over its own animation frames, then is gone */
+            int waveFrame = mCurrentFrame - wave * mWaveStagger;
+            if (waveFrame <= 0) {
+                break;
+            }
+            if (waveFrame > mRippleAnimationFrames) {
+                continue;
+            }
+            mWavePath.addCircle(mPositionX, mPositionY, getRippleRadius(waveFrame),
+                    Path.Direction.CW);
+        }
+        mActiveRenderer.drawRipplePath(canvas, mWavePath, paint);
+    }
+
+    private boolean hasKeyframeTrack(int track) {
+        return mKeyframeTracks != null && mKeyframeTracks.hasTrack(track);
+    }
+
     private Paint preparePaintHighlight(Paint highlightPaint, int currentFrame,
             int animationFrames, int highlightAnimationPeakFrame, float highlightMaxAlpha,
-            Interpolator interpolator) {
-        float rectInterpolatorPosition = (currentFrame - 1 < highlightAnimationPeakFrame) ? (float)currentFrame
-                / (float)highlightAnimationPeakFrame
-                : 1 - (((float)(currentFrame - highlightAnimationPeakFrame) / (float)(animationFrames - highlightAnimationPeakFrame)));
-        int rectAlpha = (int)(highlightMaxAlpha * interpolator
-                .getInterpolation(rectInterpolatorPosition));
-        highlightPaint.setAlpha(rectAlpha);
+            RippleInterpolator interpolator) {
+        highlightPaint.setAlpha(RippleFrames.getHighlightAlpha(currentFrame, animationFrames,
+                highlightAnimationPeakFrame, highlightMaxAlpha, interpolator));
         return highlightPaint;
     }
 
     private Paint preparePaintRipple(Paint ripplePaint, int currentFrame, int animationFrames,
             int rippleAnimationPeakFrame, float rippleMaxAlpha, float frameDuration,
             float rippleAnimationDuration) {
-        float rippleInterpolatorPosition = (currentFrame - 1 < rippleAnimationPeakFrame) ? (float)currentFrame
-                / (float)rippleAnimationPeakFrame
-                : (1 - ((float)(currentFrame - rippleAnimationPeakFrame) / (float)(animationFrames - rippleAnimationPeakFrame)));
-        int rippleAlpha = (int)(rippleMaxAlpha * mInterpolator
-                .getInterpolation(rippleInterpolatorPosition));
-        ripplePaint
-                .setAlpha((int)(rippleAlpha - ((rippleAlpha) * (((float)currentFrame * frameDuration) / rippleAnimationDuration))));
+        ripplePaint.setAlpha(RippleFrames.getRippleAlpha(currentFrame, animationFrames,
+                rippleAnimationPeakFrame, rippleMaxAlpha, frameDuration, rippleAnimationDuration,
+                mFrameInterpolator));
         return ripplePaint;
     }
 
@@ -374,9 +729,119 @@ public class RippleDecoratorView extends RelativeLayout {
         mScaleAnimation.setInterpolator(mZoomInterpolator);
     }
 
+    private void scheduleDrain() {
+        if (mIsDrainScheduled.compareAndSet(false, true)) {
+            mCanvasHandler.post(drainRunnable);
+        }
+    }
+
+    /**
+     * Applies the requests posted from other threads. Runs on the UI thread from a posted message,
+     * never while drawing, animation requests arriving in between are coalesced into the latest
+     * one.
+     */
+    private void drainRequests() {
+        mIsDrainScheduled.set(false);
+        applyConfig();
+        boolean hasRequest = false;
+        float x = 0;
+        float y = 0;
+        while (mRequestQueue.poll()) {
+            hasRequest = true;
+            x = mRequestQueue.getPolledX();
+            y = mRequestQueue.getPolledY();
+        }
+        if (hasRequest) {
+            doAnimation(x, y);
+        }
+    }
+
+    private void requestConfig(RippleConfig.Edit edit) {
+        RippleConfig config;
+        do {
+            config = mRequestedConfig.get();
+        } while (!mRequestedConfig.compareAndSet(config, edit.apply(config)));
+    }
+
+    /**
+     * Applies the requested configuration right away on the UI thread, and on its next message
+     * loop from any other thread.
+     */
+    private void commitConfig() {
+        if (Looper.myLooper() == mCanvasHandler.getLooper()) {
+            applyConfig();
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * UI thread setters also go through the snapshot, so values posted earlier from other threads
+     * cannot override them when drained.
+     */
+    private void applyConfig() {
+        RippleConfig config = mRequestedConfig.get();
+        if (config == mAppliedConfig) {
+            return;
+        }
+        if (config.getRippleColor() != mAppliedConfig.getRippleColor()) {
+            mRippleColor = config.getRippleColor();
+            mRipplePaint.setColor(mRippleColor);
+        }
+        if (config.getHighlightColor() != mAppliedConfig.getHighlightColor()) {
+            mHighlighColor = config.getHighlightColor();
+            mHighlightPaint.setColor(mHighlighColor);
+        }
+        if (config.getRippleStyle() != mAppliedConfig.getRippleStyle()) {
+            mRippleStyle = config.getRippleStyle();
+        }
+        if (config.getRippleMaxAlpha() != mAppliedConfig.getRippleMaxAlpha()) {
+            mRippleMaxAlpha = config.getRippleMaxAlpha();
+        }
+        if (config.getHighlightMaxAlpha() != mAppliedConfig.getHighlightMaxAlpha()) {
+            mHighlightMaxAlpha = config.getHighlightMaxAlpha();
+        }
+        if (config.isRippleCentered() != mAppliedConfig.isRippleCentered()) {
+            mRippleCentered = config.isRippleCentered();
+        }
+        if (config.getRipplePadding() != mAppliedConfig.getRipplePadding()) {
+            mRipplePadding = config.getRipplePadding();
+        }
+        if (config.getRippleRadius() != mAppliedConfig.getRippleRadius()) {
+            mRippleRadius = config.getRippleRadius();
+        }
+        mAppliedConfig = config;
+    }
+
+    private void invalidateAnimation() {
+        if (mOnTraceListener != null) {
+            mOnTraceListener.onTraceInvalidate();
+        }
+        invalidate();
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        if (event.getAction() == MotionEvent.ACTION_UP) {
+        if (mOnTraceListener != null) {
+            mOnTraceListener.onTraceTouchEvent(event, mIsIntercepting);
+        }
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        /* Events are pooled, so the reference is only compared within one dispatch */
+        boolean redelivered = !mIsIntercepting && event == mInterceptedEvent;
+        if (!mIsIntercepting) {
+            mInterceptedEvent = null;
+        }
+        if (getNestedTouchModeOrDefault() == NestedTouchModes.INNERMOST
+                && skipInnermostTouchEvent(event, action, redelivered)) {
+            return true;
+        }
+        if (action == MotionEvent.ACTION_DOWN
+                && mStateMachine.canSpeculate(mRippleSpeculative,
+                        toStateMachineTrigger(mRippleAnimationTrigger))) {
+            startDrawAnimation(event.getX(), event.getY(), event.getDownTime(),
+                    event.getEventTime(), Triggers.onTap, true);
+        }
+        if (action == MotionEvent.ACTION_UP) {
             checkAnimations(event, Triggers.onUp);
         }
         if (mDownGestureDetector.onTouchEvent(event)) {
@@ -385,27 +850,142 @@ public class RippleDecoratorView extends RelativeLayout {
         if (mTapGestureDetector.onTouchEvent(event)) {
             checkAnimations(event, Triggers.onTap);
         }
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            /* The gesture ended without resolving as a tap */
+            abortSpeculation();
+        }
         return true;
     }
 
+    private NestedTouchModes getNestedTouchModeOrDefault() {
+        return mNestedTouchMode != null ? mNestedTouchMode : sDefaultNestedTouchMode;
+    }
+
+    /**
+     * In innermost mode a gesture is left to the decorators nested under its down position, and
+     * an event reaching the view twice, through onInterceptTouchEvent and then onTouchEvent, is
+     * only processed once.
+     */
+    private boolean skipInnermostTouchEvent(MotionEvent event, int action, boolean redelivered) {
+        if (redelivered) {
+            return true;
+        }
+        if (action == MotionEvent.ACTION_DOWN) {
+            mIsTouchLeftToDescendant = hasTriggerDescendantAt(this, event.getX(), event.getY());
+        }
+        return mIsTouchLeftToDescendant;
+    }
+
+    private static boolean hasTriggerDescendantAt(ViewGroup parent, float x, float y) {
+        float parentX = x + parent.getScrollX();
+        float parentY = y + parent.getScrollY();
+        for (int i = parent.getChildCount() - 1; i >= 0; i--) {
+            View child = parent.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE || parentX < child.getLeft()
+                    || parentX >= child.getRight() || parentY < child.getTop()
+                    || parentY >= child.getBottom()) {
+                continue;
+            }
+            if (child instanceof RippleDecoratorView && child.isEnabled()
+                    && ((RippleDecoratorView)child).hasTouchTriggers()) {
+                return true;
+            }
+            if (child instanceof ViewGroup
+                    && hasTriggerDescendantAt((ViewGroup)child, parentX - child.getLeft(),
+                            parentY - child.getTop())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasTouchTriggers() {
+        return RippleStateMachine.hasTouchTriggers(toStateMachineTrigger(mRippleAnimationTrigger),
+                mZoomAnimation, toStateMachineTrigger(mZoomAnimationTrigger));
+    }
+
+    /**
+     * Maps a trigger to the value RippleStateMachine takes for it.
+     */
+    private static int toStateMachineTrigger(Triggers trigger) {
+        switch (trigger) {
+            case onUp:
+                return RippleStateMachine.TRIGGER_ON_UP;
+            case onDown:
+                return RippleStateMachine.TRIGGER_ON_DOWN;
+            case onTap:
+                return RippleStateMachine.TRIGGER_ON_TAP;
+            default:
+                return RippleStateMachine.TRIGGER_NONE;
+        }
+    }
+
     private void checkAnimations(MotionEvent event, Triggers triggers) {
-        if (mZoomAnimation && mZoomAnimationTrigger == triggers) {
-            this.startAnimation(mScaleAnimation);
+        int trigger = toStateMachineTrigger(triggers);
+        if (RippleStateMachine.isZoomTriggered(trigger, mZoomAnimation,
+                toStateMachineTrigger(mZoomAnimationTrigger))) {
+            startZoomAnimation();
+        }
+        switch (mStateMachine.resolve(trigger, toStateMachineTrigger(mRippleAnimationTrigger))) {
+            case RippleStateMachine.RESOLVED_COMMIT:
+                /* The ripple started on down, the tap confirms it */
+                commitLatency(event);
+                this.performClick();
+                break;
+            case RippleStateMachine.RESOLVED_START:
+                startDrawAnimation(event.getX(), event.getY(), event.getDownTime(),
+                        event.getEventTime(), triggers, false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Measures a speculative ripple from the up that resolved the tap. Drawn before the up, its
+     * feedback was on screen as soon as the tap resolved.
+     */
+    private void commitLatency(MotionEvent event) {
+        if (!mIsLatencyAwaitingTap) {
+            return;
         }
-        if (!mIsAnimationRunning && mRippleAnimationTrigger == triggers) {
-            startDrawAnimation(event.getX(), event.getY());
+        mIsLatencyAwaitingTap = false;
+        mAnimationEventTime = event.getEventTime();
+        if (!mIsLatencyPending && mLatencyTracker != null) {
+            mLatencyTracker.record(Triggers.onTap, mFirstFrameTime - mAnimationEventTime,
+                    mFirstFrameTime - mAnimationDownTime);
         }
     }
 
-    private void startDrawAnimation(float x, float y) {
-        mFrameDuration = mRippleAnimationDuration / mRippleAnimationFrames;
+    /**
+     * Fades out quickly a ripple started on down when the gesture turns out not to be a tap.
+     */
+    private void abortSpeculation() {
+        mStateMachine.abortSpeculation(System.nanoTime());
+    }
+
+    private void startDrawAnimation(float x, float y, long downTime, long eventTime,
+            Triggers trigger, boolean speculative) {
+        mFrameDuration = RippleFrames.getFrameDuration(mRippleAnimationDuration,
+                mRippleAnimationFrames);
+        mWaveStagger = RippleFrames.getWaveStagger(mRippleWaveStagger, mRippleAnimationFrames,
+                mRippleWaveCount);
+        mTrainFrames = RippleFrames.getTrainFrames(mRippleAnimationFrames, mRippleWaveCount,
+                mWaveStagger);
+        mTrainDuration = mRippleAnimationDuration
+                + (mTrainFrames - mRippleAnimationFrames) * mFrameDuration;
+        captureQualityTier();
+        mLastFrameNanoTime = 0L;
+        mRipplePaint.setAntiAlias(!isQualityTier(RippleQualityGovernor.Tiers.NO_ANTIALIAS));
         mRipplePaint.setStyle((mRippleStyle.getStyle()));
         mRipplePaint.setColor(mRippleColor);
         mRipplePaint.setAlpha(0);
         mHighlightPaint.setColor(mHighlighColor);
         mHighlightPaint.setAlpha(0);
         if (mRippleRadius == -1) {
-            mRippleRadius = Math.max(mWidth, mHeight) / 2 - mRipplePadding;
+            mAnimationRadius = Math.max(mWidth, mHeight) / 2 - mRipplePadding;
+        } else {
+            mAnimationRadius = mRippleRadius;
         }
         if (mRippleCentered) {
             this.mPositionX = getMeasuredWidth() / 2;
@@ -414,10 +994,66 @@ public class RippleDecoratorView extends RelativeLayout {
             this.mPositionX = x;
             this.mPositionY = y;
         }
-        mIsAnimationRunning = true;
-        mAnimationStartNanoTime = System.nanoTime();
-        invalidate();
-        this.performClick();
+        if (mStateMachine.start(System.nanoTime(), speculative)) {
+            mActiveRenderer.onAnimationEnd();
+        } else {
+            sRunningAnimations++;
+        }
+        mActiveRenderer = resolveRenderer();
+        mActiveRenderer.onAnimationStart(this, mPositionX, mPositionY, mAnimationRadius,
+                mRipplePaint);
+        mAnimationTrigger = trigger;
+        mAnimationEventTime = eventTime;
+        mAnimationDownTime = downTime;
+        mIsLatencyPending = mLatencyTracker != null;
+        mIsLatencyAwaitingTap = mIsLatencyPending && speculative;
+        if (mDebugOverlay != null) {
+            mDebugOverlay.onAnimationStart(mTrainFrames, mFrameDuration);
+        }
+        if (mOnTraceListener != null) {
+            mOnTraceListener.onTraceAnimationStart(trigger, mPositionX, mPositionY);
+        }
+        invalidateAnimation();
+        if (!speculative) {
+            this.performClick();
+        }
+    }
+
+    private RippleRenderer resolveRenderer() {
+        mIsMeasuringRenderer = false;
+        mActiveRendererType = null;
+        if (mRippleRenderer != null) {
+            return mRippleRenderer;
+        }
+        Renderers renderer = mRenderer != null ? mRenderer : sDefaultRenderer;
+        if (renderer == Renderers.AUTO) {
+            boolean hardwareAccelerated = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
+                    && isHardwareAccelerated();
+            /* Renderers only differ on software canvases for a single filled ripple */
+            boolean comparable = !hardwareAccelerated && mRippleStyle == Styles.FILL
+                    && mRippleWaveCount == 1;
+            renderer = RippleRendererSelector.select(comparable);
+            mIsMeasuringRenderer = comparable;
+        }
+        mActiveRendererType = renderer;
+        switch (renderer) {
+            case CACHED_BITMAP:
+                if (mCachedBitmapRenderer == null) {
+                    mCachedBitmapRenderer = new CachedBitmapRippleRenderer();
+                }
+                return mCachedBitmapRenderer;
+            case RIPPLE_DRAWABLE:
+                if (RippleDrawableRenderer.isSupported()) {
+                    if (mRippleDrawableRenderer == null) {
+                        mRippleDrawableRenderer = new RippleDrawableRenderer();
+                    }
+                    return mRippleDrawableRenderer;
+                }
+                mActiveRendererType = Renderers.CANVAS;
+                return CANVAS_RENDERER;
+            default:
+                return CANVAS_RENDERER;
+        }
     }
 
     @Override
@@ -428,7 +1064,11 @@ public class RippleDecoratorView extends RelativeLayout {
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent event) {
+        mIsIntercepting = true;
         onTouchEvent(event);
+        mIsIntercepting = false;
+        /* The same event object reaches onTouchEvent if no child takes it */
+        mInterceptedEvent = event;
         return false;
     }
 
@@ -442,17 +1082,67 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param y Center of the animation in the y axis
      */
     public void doAnimation(float x, float y) {
-        startDrawAnimation(x, y);
+        long now = SystemClock.uptimeMillis();
+        startDrawAnimation(x, y, now, now, Triggers.none, false);
         if (mZoomAnimation) {
-            this.startAnimation(mScaleAnimation);
+            startZoomAnimation();
         }
     }
 
+    /**
+     * Requests animations for this view from any thread. Requests are applied on the UI thread
+     * on its next frame; when several arrive in between only the latest one is played.
+     *
+     * @param x Center of the animation in the x axis
+     * @param y Center of the animation in the y axis
+     * @return false if too many requests are pending and this one was dropped
+     */
+    public boolean postAnimation(float x, float y) {
+        boolean queued = mRequestQueue.offer(x, y);
+        scheduleDrain();
+        return queued;
+    }
+
+    /**
+     * Set the color of the ripple from any thread. Applied on the UI thread on its next frame.
+     * NOTE: Do not send color ids.
+     *
+     * @param rippleColor ripple color
+     */
+    public void postRippleColor(final int rippleColor) {
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleColor(rippleColor);
+            }
+        });
+        scheduleDrain();
+    }
+
+    /**
+     * Set the color of the highlight effect from any thread. Applied on the UI thread on its
+     * next frame. NOTE: Do not send color ids.
+     *
+     * @param highlightColor highlight color
+     */
+    public void postHighlightColor(final int highlightColor) {
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withHighlightColor(highlightColor);
+            }
+        });
+        scheduleDrain();
+    }
+
     /**
      * Cancels all running animations for this view. NOTE: Does not cancel zoom animation.
      */
     public void cancelAnimation() {
-        mIsAnimationRunning = false;
+        if (mStateMachine.stop()) {
+            sRunningAnimations--;
+            mActiveRenderer.onAnimationEnd();
+        }
         // FIXME cancelling zoom has unwanted side effects
     }
 
@@ -470,9 +1160,14 @@ public class RippleDecoratorView extends RelativeLayout {
      *
      * @param rippleColor ripple color
      */
-    public void setRippleColor(int rippleColor) {
-        this.mRippleColor = rippleColor;
-        mRipplePaint.setColor(rippleColor);
+    public void setRippleColor(final int rippleColor) {
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleColor(rippleColor);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -489,8 +1184,14 @@ public class RippleDecoratorView extends RelativeLayout {
      *
      * @param styles ripple style
      */
-    public void setRippleStyle(Styles styles) {
-        this.mRippleStyle = styles;
+    public void setRippleStyle(final Styles styles) {
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleStyle(styles);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -508,7 +1209,13 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param rippleMaxAlpha maximum alpha value [0, 1]
      */
     public void setRippleMaxAlpha(final float rippleMaxAlpha) {
-        this.mRippleMaxAlpha = rippleMaxAlpha;
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleMaxAlpha(rippleMaxAlpha);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -526,7 +1233,13 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param rippleCentered true if centered
      */
     public void setRippleCentered(final boolean rippleCentered) {
-        this.mRippleCentered = rippleCentered;
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleCentered(rippleCentered);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -544,7 +1257,13 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param ripplePadding padding amount in pixels
      */
     public void setRipplePadding(final int ripplePadding) {
-        this.mRipplePadding = ripplePadding;
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRipplePadding(ripplePadding);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -562,7 +1281,13 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param rippleRadius radius or -1 if full size of the view
      */
     public void setRippleRadius(final float rippleRadius) {
-        this.mRippleRadius = rippleRadius;
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withRippleRadius(rippleRadius);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -637,6 +1362,65 @@ public class RippleDecoratorView extends RelativeLayout {
         this.mRippleAnimationPeakFrame = rippleAnimationPeakFrame;
     }
 
+    /**
+     * Whether an onTap ripple starts speculatively on touch down.
+     *
+     * @return true if speculative
+     */
+    public boolean isRippleSpeculative() {
+        return this.mRippleSpeculative;
+    }
+
+    /**
+     * Set whether an onTap ripple starts speculatively on touch down, to give feedback without
+     * waiting for the tap to resolve. The click is still performed only once the gesture is
+     * recognized as a tap; if it becomes a scroll, a long press or is cancelled, the ripple fades
+     * out quickly instead.
+     *
+     * @param rippleSpeculative true if speculative
+     */
+    public void setRippleSpeculative(final boolean rippleSpeculative) {
+        this.mRippleSpeculative = rippleSpeculative;
+    }
+
+    /**
+     * Get the number of concentric waves the ripple is made of.
+     *
+     * @return number of waves
+     */
+    public int getRippleWaveCount() {
+        return this.mRippleWaveCount;
+    }
+
+    /**
+     * Set the number of concentric waves the ripple is made of. Every wave expands from the
+     * touching point like the first one, starting some frames later.
+     *
+     * @param rippleWaveCount number of waves, 1 for a single ripple
+     */
+    public void setRippleWaveCount(final int rippleWaveCount) {
+        this.mRippleWaveCount = Math.max(1, rippleWaveCount);
+    }
+
+    /**
+     * Get the number of frames between the start of two consecutive waves.
+     *
+     * @return number of frames or -1 if spread evenly over the animation
+     */
+    public int getRippleWaveStagger() {
+        return this.mRippleWaveStagger;
+    }
+
+    /**
+     * Set the number of frames between the start of two consecutive waves.
+     *
+     * @param rippleWaveStagger number of frames, at least 1 is used, or -1 to spread them evenly
+     *            over the animation
+     */
+    public void setRippleWaveStagger(final int rippleWaveStagger) {
+        this.mRippleWaveStagger = rippleWaveStagger;
+    }
+
     /**
      * Whether the zoom animation is active.
      * 
@@ -741,9 +1525,14 @@ public class RippleDecoratorView extends RelativeLayout {
      * 
      * @param highlighColor highlight color
      */
-    public void setHighlighColor(int highlighColor) {
-        this.mHighlighColor = highlighColor;
-        mHighlightPaint.setColor(highlighColor);
+    public void setHighlighColor(final int highlighColor) {
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withHighlightColor(highlighColor);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -761,7 +1550,13 @@ public class RippleDecoratorView extends RelativeLayout {
      * @param highlightMaxAlpha highlight maximum alpha value [0, 1]
      */
     public void setHighlightMaxAlpha(final float highlightMaxAlpha) {
-        this.mHighlightMaxAlpha = highlightMaxAlpha;
+        requestConfig(new RippleConfig.Edit() {
+            @Override
+            RippleConfig apply(RippleConfig config) {
+                return config.withHighlightMaxAlpha(highlightMaxAlpha);
+            }
+        });
+        commitConfig();
     }
 
     /**
@@ -817,4 +1612,241 @@ public class RippleDecoratorView extends RelativeLayout {
     public void setZoomInterpolator(final Interpolator zoomInterpolator) {
         this.mZoomInterpolator = zoomInterpolator;
     }
+
+    /**
+     * Get the keyframe curves replacing the built-in fade-in, fade-out timeline.
+     *
+     * @return tracks or null if the built-in timeline is used
+     */
+    public KeyframeTracks getRippleKeyframes() {
+        return this.mKeyframeTracks;
+    }
+
+    /**
+     * Set keyframe curves for the ripple radius, ripple alpha and highlight alpha. Properties
+     * without a curve keep the built-in timeline, peak frames and interpolator.
+     *
+     * @param keyframeTracks tracks or null to use the built-in timeline
+     */
+    public void setRippleKeyframes(final KeyframeTracks keyframeTracks) {
+        this.mKeyframeTracks = keyframeTracks;
+    }
+
+    /**
+     * Get the renderer used by views that do not set their own.
+     *
+     * @return renderer
+     */
+    public static Renderers getDefaultRenderer() {
+        return sDefaultRenderer;
+    }
+
+    /**
+     * Set the renderer used by views that do not set their own: canvas draws shapes directly,
+     * cachedBitmap scales a prerendered ripple, rippleDrawable delegates to the platform ripple
+     * from Lollipop and auto picks between canvas and cachedBitmap by measured cost.
+     *
+     * @param renderer renderer
+     */
+    public static void setDefaultRenderer(Renderers renderer) {
+        sDefaultRenderer = renderer;
+    }
+
+    /**
+     * Get how views that do not set their own mode share gestures with nested decorators.
+     *
+     * @return mode
+     */
+    public static NestedTouchModes getDefaultNestedTouchMode() {
+        return sDefaultNestedTouchMode;
+    }
+
+    /**
+     * Set how views that do not set their own mode share gestures with nested decorators.
+     *
+     * @param nestedTouchMode mode
+     */
+    public static void setDefaultNestedTouchMode(NestedTouchModes nestedTouchMode) {
+        sDefaultNestedTouchMode = nestedTouchMode;
+    }
+
+    /**
+     * Get how this view shares gestures with nested decorators.
+     *
+     * @return mode or null if the default mode is used
+     */
+    public NestedTouchModes getNestedTouchMode() {
+        return this.mNestedTouchMode;
+    }
+
+    /**
+     * Set how this view shares gestures with nested decorators. Always processes every gesture,
+     * so ancestors opt in by keeping it. Innermost leaves a gesture to the nested decorators
+     * with triggers under its down position, and processes events reaching the view twice only
+     * once.
+     *
+     * @param nestedTouchMode mode or null to use the default mode
+     */
+    public void setNestedTouchMode(final NestedTouchModes nestedTouchMode) {
+        this.mNestedTouchMode = nestedTouchMode;
+    }
+
+    /**
+     * Get the renderer of this view.
+     *
+     * @return renderer or null if the default renderer is used
+     */
+    public Renderers getRenderer() {
+        return this.mRenderer;
+    }
+
+    /**
+     * Set the renderer of this view. Applies from the next animation.
+     *
+     * @param renderer renderer or null to use the default renderer
+     */
+    public void setRenderer(final Renderers renderer) {
+        this.mRenderer = renderer;
+    }
+
+    /**
+     * Get the custom renderer of this view.
+     *
+     * @return custom renderer or null
+     */
+    public RippleRenderer getRippleRenderer() {
+        return this.mRippleRenderer;
+    }
+
+    /**
+     * Set a custom renderer for this view, which takes precedence over the renderer setting.
+     * Applies from the next animation.
+     *
+     * @param rippleRenderer custom renderer or null
+     */
+    public void setRippleRenderer(final RippleRenderer rippleRenderer) {
+        this.mRippleRenderer = rippleRenderer;
+    }
+
+    /**
+     * Get the number of ripple/highlight animations running across all views.
+     *
+     * @return number of running animations
+     */
+    public static int getRunningAnimations() {
+        return sRunningAnimations;
+    }
+
+    /**
+     * Whether the debug overlay with frame timings is drawn on top of the view.
+     *
+     * @return true if active
+     */
+    public boolean isDebugOverlay() {
+        return this.mDebugOverlay != null;
+    }
+
+    /**
+     * Activate or deactivate the debug overlay. It shows the actual frame interval against the
+     * planned one, frames drawn against planned, the ripple bounds and the number of animations
+     * running across all views.
+     *
+     * @param debugOverlay true if active
+     */
+    public void setDebugOverlay(final boolean debugOverlay) {
+        if (debugOverlay && mDebugOverlay == null) {
+            mDebugOverlay = new RippleDebugOverlay(
+                    getContext().getResources().getDisplayMetrics().density);
+        } else if (!debugOverlay) {
+            mDebugOverlay = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * Get the tracker collecting touch to first frame latencies.
+     *
+     * @return tracker or null
+     */
+    public RippleLatencyTracker getLatencyTracker() {
+        return this.mLatencyTracker;
+    }
+
+    /**
+     * Set a tracker collecting, per trigger, the time from the touch event that starts an
+     * animation, and from the down of its gesture, to the first frame drawing it. Trackers can be
+     * shared by several views.
+     *
+     * @param latencyTracker tracker or null to stop measuring
+     */
+    public void setLatencyTracker(final RippleLatencyTracker latencyTracker) {
+        this.mLatencyTracker = latencyTracker;
+        if (latencyTracker == null) {
+            mIsLatencyPending = false;
+            mIsLatencyAwaitingTap = false;
+        }
+    }
+
+    /**
+     * Get the governor adapting the quality of the effect to the load.
+     *
+     * @return governor or null if the full effect is always drawn
+     */
+    public RippleQualityGovernor getQualityGovernor() {
+        return this.mQualityGovernor;
+    }
+
+    /**
+     * Set a governor stepping the effect down quality tiers when frames miss their budget and
+     * back up when headroom returns. Tiers apply from the next animation. Governors can be
+     * shared by several views.
+     *
+     * @param qualityGovernor governor or null to always draw the full effect
+     */
+    public void setQualityGovernor(final RippleQualityGovernor qualityGovernor) {
+        this.mQualityGovernor = qualityGovernor;
+    }
+
+    /**
+     * Whether the highlight and ripple are composed into a single draw.
+     *
+     * @return true if active
+     */
+    public boolean isSinglePassComposition() {
+        return this.mSinglePassComposer != null;
+    }
+
+    /**
+     * Activate or deactivate drawing the highlight and ripple in a single pass over the view,
+     * instead of a rectangle with a circle blended on top. Only applies to the canvas renderer
+     * with a single wave, while the highlight is drawn.
+     *
+     * @param singlePassComposition true if active
+     */
+    public void setSinglePassComposition(final boolean singlePassComposition) {
+        if (singlePassComposition && mSinglePassComposer == null) {
+            mSinglePassComposer = new SinglePassRippleComposer();
+        } else if (!singlePassComposition) {
+            mSinglePassComposer = null;
+        }
+    }
+
+    /**
+     * Get the listener receiving touch events, animation starts and invalidations.
+     *
+     * @return listener or null
+     */
+    public OnTraceListener getOnTraceListener() {
+        return this.mOnTraceListener;
+    }
+
+    /**
+     * Set the listener receiving touch events, animation starts and invalidations. See
+     * {@link TouchTraceRecorder} and {@link TouchTraceReplayer}.
+     *
+     * @param onTraceListener listener or null to stop tracing
+     */
+    public void setOnTraceListener(final OnTraceListener onTraceListener) {
+        this.mOnTraceListener = onTraceListener;
+    }
 }
@@ -0,0 +1,88 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.annotation.TargetApi;
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.drawable.RippleDrawable;
+import android.os.Build;
+import android.view.View;
+
+/**
+ * Delegates the ripple to the platform {@link RippleDrawable}, available from Lollipop. The
+ * platform drives its own timeline, so peak frames, maximum alpha and interpolators do not apply;
+ * only the color, the position and the animation duration do.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class RippleDrawableRenderer implements RippleRenderer {
+    private static final int[] STATE_PRESSED = new int[] {
+            android.R.attr.state_pressed, android.R.attr.state_enabled
+    };
+
+    private static final int[] STATE_RELEASED = new int[] {
+            android.R.attr.state_enabled
+    };
+
+    private RippleDrawable mRippleDrawable;
+
+    /**
+     * @return true if the platform supports this renderer
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    @Override
+    public void onAnimationStart(View view, float x, float y, float maxRadius, Paint ripplePaint) {
+        ColorStateList color = ColorStateList.valueOf(ripplePaint.getColor());
+        if (mRippleDrawable == null) {
+            mRippleDrawable = new RippleDrawable(color, null, null);
+        } else {
+            mRippleDrawable.setColor(color);
+        }
+        mRippleDrawable.setBounds(0, 0, view.getWidth(), view.getHeight());
+        mRippleDrawable.setHotspot(x, y);
+        /* Press and release right away so the enter and exit animations both play */
+        mRippleDrawable.setState(STATE_PRESSED);
+        mRippleDrawable.setState(STATE_RELEASED);
+    }
+
+    @Override
+    public void drawHighlight(Canvas canvas, Rect bounds, Paint paint) {
+        /* The platform ripple draws its own pressed highlight */
+    }
+
+    @Override
+    public void drawRipple(Canvas canvas, float x, float y, float radius, Paint paint) {
+        mRippleDrawable.draw(canvas);
+    }
+
+    @Override
+    public void drawRipplePath(Canvas canvas, Path path, Paint paint) {
+        /* The platform ripple has a single wave */
+        mRippleDrawable.draw(canvas);
+    }
+
+    @Override
+    public void onAnimationEnd() {
+        if (mRippleDrawable != null) {
+            mRippleDrawable.jumpToCurrentState();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+/**
+ * Collects, per trigger, the time to the first frame drawing an animation, measured both from the
+ * touch event that triggered it and from the down of its gesture. The triggering event is the down
+ * for onDown and the up for onUp and onTap. A speculative onTap ripple drawn before the up counts
+ * as 0 from the up, its feedback was on screen when the tap resolved, and is only recorded once
+ * the gesture resolves as a tap. Event and draw times share the
+ * {@link android.os.SystemClock#uptimeMillis()} base. Animations started programmatically are
+ * recorded under none, from the time of the call. A tracker can be shared by several views. Must
+ * be used from the UI thread.
+ */
+public class RippleLatencyTracker {
+    private final LatencyHistogram[] mHistograms =
+            new LatencyHistogram[RippleDecoratorView.Triggers.values().length];
+
+    private final LatencyHistogram[] mDownHistograms =
+            new LatencyHistogram[RippleDecoratorView.Triggers.values().length];
+
+    public RippleLatencyTracker() {
+        for (int i = 0; i < mHistograms.length; i++) {
+            mHistograms[i] = new LatencyHistogram();
+            mDownHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(RippleDecoratorView.Triggers trigger, long latencyMillis,
+            long downLatencyMillis) {
+        mHistograms[trigger.ordinal()].record(latencyMillis);
+        mDownHistograms[trigger.ordinal()].record(downLatencyMillis);
+    }
+
+    /**
+     * Get the latencies of the animations started by a trigger, from the event that triggered
+     * them: the down for onDown, the up for onUp and onTap.
+     *
+     * @param trigger trigger
+     * @return histogram
+     */
+    public LatencyHistogram getHistogram(RippleDecoratorView.Triggers trigger) {
+        return mHistograms[trigger.ordinal()];
+    }
+
+    /**
+     * Get the latencies of the animations started by a trigger, from the down of their gesture.
+     *
+     * @param trigger trigger
+     * @return histogram
+     */
+    public LatencyHistogram getDownHistogram(RippleDecoratorView.Triggers trigger) {
+        return mDownHistograms[trigger.ordinal()];
+    }
+
+    /**
+     * Removes all recorded latencies.
+     */
+    public void clear() {
+        for (int i = 0; i < mHistograms.length; i++) {
+            mHistograms[i].clear();
+            mDownHistograms[i].clear();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.annotation.TargetApi;
+import android.app.ActivityManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.PowerManager;
+
+/**
+ * Steps the ripple effect down quality tiers when the frames of running animations miss their
+ * budget, and back up when they have headroom again. Low-RAM devices and power-save mode set the
+ * lowest tier used. A governor can be shared by several views. Must be used from the UI thread.
+ * Device signals are read outside of drawing: the low-RAM flag once, power-save mode from its
+ * change broadcast, received through the application context for the life of the process.
+ */
+public class RippleQualityGovernor {
+    /**
+     * Quality tiers, each one keeping the degradations of the previous ones.
+     */
+    public enum Tiers {
+        /** Full effect */
+        FULL,
+        /** Ripple drawn without antialiasing */
+        NO_ANTIALIAS,
+        /** Highlight not drawn */
+        NO_HIGHLIGHT,
+        /** Frames requested at most at REDUCED_FRAME_RATE */
+        REDUCED_FRAME_RATE,
+        /** Zoom not played */
+        NO_ZOOM
+    }
+
+    /**
+     * Receives the tier changes of a governor.
+     */
+    public interface OnQualityChangeListener {
+        /**
+         * Called when the tier used by the next animations changes.
+         *
+         * @param oldTier previous tier
+         * @param newTier new tier
+         */
+        void onQualityChanged(Tiers oldTier, Tiers newTier);
+    }
+
+    /** Frames per second of the reduced frame rate tier */
+    public static final int REDUCED_FRAME_RATE = 30;
+
+    /** Display frame budget intervals are judged against when the planned one is shorter */
+    private static final long FRAME_BUDGET_NANOS = 16666667L;
+
+    /** Frames evaluated together */
+    private static final int WINDOW_FRAMES = 30;
+
+    /** Janky frames in a window stepping the tier down */
+    private static final int STEP_DOWN_JANKY_FRAMES = 6;
+
+    /** Janky frames a window can have and still count towards stepping up */
+    private static final int HEADROOM_JANKY_FRAMES = 1;
+
+    /** Consecutive windows with headroom stepping the tier up */
+    private static final int STEP_UP_WINDOWS = 4;
+
+    private static RippleQualityGovernor sDefault;
+
+    private final PowerManager mPowerManager;
+
+    private final boolean mIsLowRamDevice;
+
+    private boolean mIsPowerSaveMode;
+
+    private Tiers mTier;
+
+    private Tiers mOverrideTier;
+
+    private Tiers mFloorTier;
+
+    private int mWindowFrames = 0;
+
+    private int mWindowJankyFrames = 0;
+
+    private int mHeadroomWindows = 0;
+
+    private OnQualityChangeListener mOnQualityChangeListener;
+
+    public RippleQualityGovernor(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        mIsLowRamDevice = isLowRamDevice((ActivityManager)applicationContext
+                .getSystemService(Context.ACTIVITY_SERVICE));
+        mPowerManager = (PowerManager)applicationContext.getSystemService(Context.POWER_SERVICE);
+        mIsPowerSaveMode = isPowerSaveMode();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            registerPowerSaveReceiver(applicationContext);
+        }
+        mFloorTier = readFloorTier();
+        mTier = mFloorTier;
+    }
+
+    /**
+     * Get the governor shared by the views with adaptive quality activated from their attributes.
+     *
+     * @param context context
+     * @return governor
+     */
+    public static RippleQualityGovernor getDefault(Context context) {
+        if (sDefault == null) {
+            sDefault = new RippleQualityGovernor(context);
+        }
+        return sDefault;
+    }
+
+    /**
+     * Records the interval between two frames of a running animation.
+     *
+     * @param intervalNanos time since the previous frame
+     * @param plannedNanos time the animation planned between frames
+     */
+    void recordFrame(long intervalNanos, long plannedNanos) {
+        long budgetNanos = Math.max(plannedNanos, FRAME_BUDGET_NANOS);
+        /* Half a budget of slack so vsync alignment alone does not count as jank */
+        if (intervalNanos > budgetNanos + budgetNanos / 2) {
+            mWindowJankyFrames++;
+        }
+        if (++mWindowFrames < WINDOW_FRAMES) {
+            return;
+        }
+        int jankyFrames = mWindowJankyFrames;
+        mWindowFrames = 0;
+        mWindowJankyFrames = 0;
+        mFloorTier = readFloorTier();
+        if (jankyFrames >= STEP_DOWN_JANKY_FRAMES) {
+            mHeadroomWindows = 0;
+            setTier(step(mTier, 1));
+        } else if (jankyFrames <= HEADROOM_JANKY_FRAMES
+                && ++mHeadroomWindows >= STEP_UP_WINDOWS) {
+            mHeadroomWindows = 0;
+            setTier(step(mTier, -1));
+        } else {
+            if (jankyFrames > HEADROOM_JANKY_FRAMES) {
+                /* Windows with headroom need to be consecutive */
+                mHeadroomWindows = 0;
+            }
+            /* A floor raised by the device signals applies right away */
+            setTier(mTier);
+        }
+    }
+
+    private Tiers step(Tiers tier, int direction) {
+        int ordinal = Math.max(0, Math.min(Tiers.values().length - 1,
+                tier.ordinal() + direction));
+        return Tiers.values()[ordinal];
+    }
+
+    private void setTier(Tiers tier) {
+        if (tier.ordinal() < mFloorTier.ordinal()) {
+            tier = mFloorTier;
+        }
+        if (tier == mTier) {
+            return;
+        }
+        Tiers oldTier = getTier();
+        mTier = tier;
+        if (mOnQualityChangeListener != null && mOverrideTier == null) {
+            mOnQualityChangeListener.onQualityChanged(oldTier, tier);
+        }
+    }
+
+    private Tiers readFloorTier() {
+        if (mIsPowerSaveMode) {
+            return Tiers.REDUCED_FRAME_RATE;
+        }
+        if (mIsLowRamDevice) {
+            return Tiers.NO_HIGHLIGHT;
+        }
+        return Tiers.FULL;
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static boolean isLowRamDevice(ActivityManager activityManager) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && activityManager != null
+                && activityManager.isLowRamDevice();
+    }
+
+    /**
+     * Keeps the power-save flag current, so reading it costs no binder call while drawing. The
+     * broadcast is delivered on the main thread, like the governor is used.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void registerPowerSaveReceiver(Context applicationContext) {
+        applicationContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                mIsPowerSaveMode = isPowerSaveMode();
+            }
+        }, new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private boolean isPowerSaveMode() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && mPowerManager != null
+                && mPowerManager.isPowerSaveMode();
+    }
+
+    /**
+     * Get the tier used by the next animations.
+     *
+     * @return override tier if set, adaptive tier otherwise
+     */
+    public Tiers getTier() {
+        return mOverrideTier != null ? mOverrideTier : mTier;
+    }
+
+    /**
+     * Get the tier forced on the views.
+     *
+     * @return tier or null if adaptive
+     */
+    public Tiers getOverrideTier() {
+        return this.mOverrideTier;
+    }
+
+    /**
+     * Force a tier regardless of frame times and device signals. The adaptive tier keeps being
+     * computed and applies again once the override is removed.
+     *
+     * @param overrideTier tier or null to go back to adaptive
+     */
+    public void setOverrideTier(final Tiers overrideTier) {
+        Tiers oldTier = getTier();
+        this.mOverrideTier = overrideTier;
+        Tiers newTier = getTier();
+        if (mOnQualityChangeListener != null && oldTier != newTier) {
+            mOnQualityChangeListener.onQualityChanged(oldTier, newTier);
+        }
+    }
+
+    /**
+     * Get the listener receiving tier changes.
+     *
+     * @return listener or null
+     */
+    public OnQualityChangeListener getOnQualityChangeListener() {
+        return this.mOnQualityChangeListener;
+    }
+
+    /**
+     * Set the listener receiving tier changes.
+     *
+     * @param onQualityChangeListener listener or null
+     */
+    public void setOnQualityChangeListener(
+            final OnQualityChangeListener onQualityChangeListener) {
+        this.mOnQualityChangeListener = onQualityChangeListener;
+    }
+}
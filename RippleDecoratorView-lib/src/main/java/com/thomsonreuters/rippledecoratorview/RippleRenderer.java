@@ -0,0 +1,72 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.view.View;
+
+/**
+ * Draws the highlight and ripple of a {@link RippleDecoratorView}. Paints arrive with the color,
+ * style and alpha of the current frame already set.
+ */
+public interface RippleRenderer {
+    /**
+     * Called when an animation starts, before its first frame.
+     *
+     * @param view view being decorated
+     * @param x center of the ripple in the x axis
+     * @param y center of the ripple in the y axis
+     * @param maxRadius radius reached by the ripple at the end of the animation
+     * @param ripplePaint paint used for the ripple
+     */
+    void onAnimationStart(View view, float x, float y, float maxRadius, Paint ripplePaint);
+
+    /**
+     * Draws the highlight over the whole view.
+     *
+     * @param canvas canvas of the view
+     * @param bounds area to cover
+     * @param paint highlight paint
+     */
+    void drawHighlight(Canvas canvas, Rect bounds, Paint paint);
+
+    /**
+     * Draws the ripple for the current frame.
+     *
+     * @param canvas canvas of the view
+     * @param x center of the ripple in the x axis
+     * @param y center of the ripple in the y axis
+     * @param radius radius for the current frame
+     * @param paint ripple paint
+     */
+    void drawRipple(Canvas canvas, float x, float y, float radius, Paint paint);
+
+    /**
+     * Draws several ripple waves for the current frame in a single call.
+     *
+     * @param canvas canvas of the view
+     * @param path one circle per wave
+     * @param paint ripple paint
+     */
+    void drawRipplePath(Canvas canvas, Path path, Paint paint);
+
+    /**
+     * Called when an animation finishes or is cancelled.
+     */
+    void onAnimationEnd();
+}
@@ -0,0 +1,67 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+/**
+ * Picks a renderer for {@link RippleDecoratorView.Renderers#AUTO}. Hardware accelerated canvases
+ * draw circles cheaply, so they always use the canvas renderer. For a single filled ripple on a
+ * software canvas, the only kind before Honeycomb, the canvas and the cached bitmap renderers are
+ * tried and the one with the lowest measured cost per frame is kept; stroked ripples and wave
+ * trains draw the same with both, so they use the canvas renderer. The platform RippleDrawable is
+ * never picked, as it changes how the effect looks. Costs are shared by all views of the process,
+ * as they depend on the device rather than on the view. Must be used from the UI thread.
+ */
+final class RippleRendererSelector {
+    /** Frames measured before a renderer is compared */
+    private static final int FRAMES_TO_DECIDE = 120;
+
+    private static final long[] sTotalNanos =
+            new long[RippleDecoratorView.Renderers.values().length];
+
+    private static final int[] sFrames = new int[RippleDecoratorView.Renderers.values().length];
+
+    private RippleRendererSelector() {
+    }
+
+    /**
+     * @param comparable true if the renderers would draw differently, false to use canvas
+     * @return renderer, to be measured if comparable
+     */
+    static RippleDecoratorView.Renderers select(boolean comparable) {
+        if (!comparable) {
+            return RippleDecoratorView.Renderers.CANVAS;
+        }
+        if (sFrames[RippleDecoratorView.Renderers.CANVAS.ordinal()] < FRAMES_TO_DECIDE) {
+            return RippleDecoratorView.Renderers.CANVAS;
+        }
+        if (sFrames[RippleDecoratorView.Renderers.CACHED_BITMAP.ordinal()] < FRAMES_TO_DECIDE) {
+            return RippleDecoratorView.Renderers.CACHED_BITMAP;
+        }
+        long bitmapNanos = getMeanNanos(RippleDecoratorView.Renderers.CACHED_BITMAP);
+        long canvasNanos = getMeanNanos(RippleDecoratorView.Renderers.CANVAS);
+        return bitmapNanos < canvasNanos ? RippleDecoratorView.Renderers.CACHED_BITMAP
+                : RippleDecoratorView.Renderers.CANVAS;
+    }
+
+    static void recordFrame(RippleDecoratorView.Renderers renderer, long nanos) {
+        sTotalNanos[renderer.ordinal()] += nanos;
+        sFrames[renderer.ordinal()]++;
+    }
+
+    static long getMeanNanos(RippleDecoratorView.Renderers renderer) {
+        int frames = sFrames[renderer.ordinal()];
+        return frames == 0 ? 0L : sTotalNanos[renderer.ordinal()] / frames;
+    }
+}
@@ -0,0 +1,114 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of animation requests. Any number of threads can offer, only one
+ * thread can poll. Each slot carries a sequence number telling producers and the consumer whose
+ * turn it is, so no locks are taken and no objects are allocated per request.
+ */
+final class RippleRequestQueue {
+    private final int mMask;
+
+    private final float[] mXs;
+
+    private final float[] mYs;
+
+    private final AtomicLongArray mSequences;
+
+    private final AtomicLong mTail = new AtomicLong(0L);
+
+    private long mHead = 0L;
+
+    private float mPolledX;
+
+    private float mPolledY;
+
+    /**
+     * @param capacity maximum number of pending requests, must be a power of two
+     */
+    RippleRequestQueue(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity needs to be a power of two");
+        }
+        mMask = capacity - 1;
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            mSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a request. Safe to call from any thread.
+     *
+     * @param x center of the animation in the x axis
+     * @param y center of the animation in the y axis
+     * @return false if the queue is full and the request was dropped
+     */
+    boolean offer(float x, float y) {
+        long position = mTail.get();
+        int index;
+        while (true) {
+            index = (int)(position & mMask);
+            long difference = mSequences.get(index) - position;
+            if (difference == 0) {
+                if (mTail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = mTail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = mTail.get();
+            }
+        }
+        mXs[index] = x;
+        mYs[index] = y;
+        /* Publishing the sequence makes the coordinates visible to the consumer */
+        mSequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest request, readable through {@link #getPolledX()} and
+     * {@link #getPolledY()}. Only one thread may poll.
+     *
+     * @return false if the queue is empty
+     */
+    boolean poll() {
+        int index = (int)(mHead & mMask);
+        if (mSequences.get(index) != mHead + 1) {
+            return false;
+        }
+        mPolledX = mXs[index];
+        mPolledY = mYs[index];
+        mSequences.set(index, mHead + mMask + 1);
+        mHead++;
+        return true;
+    }
+
+    float getPolledX() {
+        return mPolledX;
+    }
+
+    float getPolledY() {
+        return mPolledY;
+    }
+}
@@ -0,0 +1,148 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Rect;
+import android.graphics.Shader;
+
+/**
+ * Draws the highlight and a single ripple with one rectangle, so every pixel of the view is
+ * blended once per frame instead of twice under the ripple. A radial gradient with hard stops
+ * holds the highlight color outside the ripple and the color of the ripple blended over the
+ * highlight inside it. Stops are spread over one pixel to match the antialiased edge of a circle.
+ */
+final class SinglePassRippleComposer {
+    /** Width of the transition between two stops, like the antialiased edge of a shape */
+    private static final float EDGE = 1.0F;
+
+    private final Paint mPaint = new Paint();
+
+    private final int[] mFillColors = new int[4];
+
+    private final float[] mFillPositions = new float[4];
+
+    private final int[] mStrokeColors = new int[6];
+
+    private final float[] mStrokePositions = new float[6];
+
+    SinglePassRippleComposer() {
+        mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * Draws the highlight over the bounds and the ripple over it.
+     *
+     * @param canvas canvas of the view
+     * @param bounds area covered by the highlight
+     * @param x center of the ripple in the x axis
+     * @param y center of the ripple in the y axis
+     * @param radius radius of the ripple
+     * @param highlightPaint highlight paint with the alpha of the frame
+     * @param ripplePaint ripple paint with the style, stroke width and alpha of the frame
+     */
+    void draw(Canvas canvas, Rect bounds, float x, float y, float radius, Paint highlightPaint,
+            Paint ripplePaint) {
+        int highlightColor = highlightPaint.getColor();
+        int rippleColor = ripplePaint.getColor();
+        int innerColor = compositeOver(rippleColor, highlightColor);
+        float innerRadius;
+        float outerRadius;
+        if (ripplePaint.getStyle() == Paint.Style.STROKE) {
+            innerRadius = radius - ripplePaint.getStrokeWidth() / 2;
+            outerRadius = radius + ripplePaint.getStrokeWidth() / 2;
+        } else {
+            innerRadius = 0.0F;
+            outerRadius = radius;
+        }
+        if (outerRadius <= 0.0F || (rippleColor >>> 24) == 0) {
+            mPaint.setShader(null);
+            mPaint.setColor(highlightColor);
+            canvas.drawRect(bounds, mPaint);
+            return;
+        }
+        float gradientRadius = outerRadius + EDGE;
+        RadialGradient gradient;
+        if (innerRadius <= 0.0F) {
+            setStops(mFillColors, mFillPositions, 0, innerColor, 0.0F, gradientRadius);
+            setStops(mFillColors, mFillPositions, 1, innerColor, outerRadius - EDGE / 2,
+                    gradientRadius);
+            setStops(mFillColors, mFillPositions, 2, highlightColor, outerRadius + EDGE / 2,
+                    gradientRadius);
+            setStops(mFillColors, mFillPositions, 3, highlightColor, gradientRadius,
+                    gradientRadius);
+            gradient = new RadialGradient(x, y, gradientRadius, mFillColors, mFillPositions,
+                    Shader.TileMode.CLAMP);
+        } else {
+            setStops(mStrokeColors, mStrokePositions, 0, highlightColor, 0.0F, gradientRadius);
+            setStops(mStrokeColors, mStrokePositions, 1, highlightColor, innerRadius - EDGE / 2,
+                    gradientRadius);
+            setStops(mStrokeColors, mStrokePositions, 2, innerColor, innerRadius + EDGE / 2,
+                    gradientRadius);
+            setStops(mStrokeColors, mStrokePositions, 3, innerColor, outerRadius - EDGE / 2,
+                    gradientRadius);
+            setStops(mStrokeColors, mStrokePositions, 4, highlightColor, outerRadius + EDGE / 2,
+                    gradientRadius);
+            setStops(mStrokeColors, mStrokePositions, 5, highlightColor, gradientRadius,
+                    gradientRadius);
+            gradient = new RadialGradient(x, y, gradientRadius, mStrokeColors, mStrokePositions,
+                    Shader.TileMode.CLAMP);
+        }
+        /* Colors carry the alphas, the paint must not scale them again */
+        mPaint.setColor(0xFF000000);
+        mPaint.setShader(gradient);
+        canvas.drawRect(bounds, mPaint);
+    }
+
+    private static void setStops(int[] colors, float[] positions, int stop, int color,
+            float distance, float gradientRadius) {
+        colors[stop] = color;
+        float position = Math.max(0.0F, Math.min(1.0F, distance / gradientRadius));
+        /* Stops need to be in ascending order */
+        positions[stop] = stop == 0 ? position : Math.max(positions[stop - 1], position);
+    }
+
+    /**
+     * Blends a color over another one as source over, the way the ripple is drawn over the
+     * highlight.
+     *
+     * @param top color drawn last
+     * @param bottom color drawn first
+     * @return unpremultiplied ARGB color of the result
+     */
+    static int compositeOver(int top, int bottom) {
+        int topAlpha = top >>> 24;
+        int bottomAlpha = bottom >>> 24;
+        /* Alphas and premultiplied channels scaled by 255 * 255 */
+        int alpha = topAlpha * 255 + bottomAlpha * (255 - topAlpha);
+        if (alpha == 0) {
+            return 0;
+        }
+        int red = blendChannel((top >> 16) & 0xFF, (bottom >> 16) & 0xFF, topAlpha, bottomAlpha,
+                alpha);
+        int green = blendChannel((top >> 8) & 0xFF, (bottom >> 8) & 0xFF, topAlpha, bottomAlpha,
+                alpha);
+        int blue = blendChannel(top & 0xFF, bottom & 0xFF, topAlpha, bottomAlpha, alpha);
+        return ((alpha + 127) / 255) << 24 | red << 16 | green << 8 | blue;
+    }
+
+    private static int blendChannel(int top, int bottom, int topAlpha, int bottomAlpha,
+            int alpha) {
+        int premultiplied = top * topAlpha * 255 + bottom * bottomAlpha * (255 - topAlpha);
+        return Math.min(255, (premultiplied + alpha / 2) / alpha);
+    }
+}
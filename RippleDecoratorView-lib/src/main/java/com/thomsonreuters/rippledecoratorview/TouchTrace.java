@@ -0,0 +1,199 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compact sequence of touch events and animation starts captured from a
+ * {@link RippleDecoratorView}. Each record takes 14 bytes once serialized: kind, code, time
+ * relative to the first record in milliseconds, x and y.
+ */
+public final class TouchTrace {
+    /** Event received through onInterceptTouchEvent, code is the masked action */
+    public static final byte KIND_INTERCEPT = 0;
+
+    /** Event received through onTouchEvent, code is the masked action */
+    public static final byte KIND_TOUCH = 1;
+
+    /** Animation started, code is the ordinal of the trigger */
+    public static final byte KIND_ANIMATION = 2;
+
+    private static final int MAGIC = 0x52445654;
+
+    private static final int VERSION = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] mKinds = new byte[INITIAL_CAPACITY];
+
+    private byte[] mCodes = new byte[INITIAL_CAPACITY];
+
+    private int[] mTimes = new int[INITIAL_CAPACITY];
+
+    private float[] mXs = new float[INITIAL_CAPACITY];
+
+    private float[] mYs = new float[INITIAL_CAPACITY];
+
+    private int mSize = 0;
+
+    private long mBaseTime = -1;
+
+    /**
+     * Appends a record to the trace.
+     *
+     * @param kind one of KIND_INTERCEPT, KIND_TOUCH or KIND_ANIMATION
+     * @param code masked action or trigger ordinal
+     * @param uptimeMillis time of the record, in the
+     *            {@link android.os.SystemClock#uptimeMillis()} base
+     * @param x position in the x axis
+     * @param y position in the y axis
+     */
+    public void append(byte kind, int code, long uptimeMillis, float x, float y) {
+        if (mBaseTime == -1) {
+            mBaseTime = uptimeMillis;
+        }
+        if (mSize == mKinds.length) {
+            grow();
+        }
+        mKinds[mSize] = kind;
+        mCodes[mSize] = (byte)code;
+        mTimes[mSize] = (int)(uptimeMillis - mBaseTime);
+        mXs[mSize] = x;
+        mYs[mSize] = y;
+        mSize++;
+    }
+
+    private void grow() {
+        int capacity = mKinds.length * 2;
+        byte[] kinds = new byte[capacity];
+        byte[] codes = new byte[capacity];
+        int[] times = new int[capacity];
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        System.arraycopy(mKinds, 0, kinds, 0, mSize);
+        System.arraycopy(mCodes, 0, codes, 0, mSize);
+        System.arraycopy(mTimes, 0, times, 0, mSize);
+        System.arraycopy(mXs, 0, xs, 0, mSize);
+        System.arraycopy(mYs, 0, ys, 0, mSize);
+        mKinds = kinds;
+        mCodes = codes;
+        mTimes = times;
+        mXs = xs;
+        mYs = ys;
+    }
+
+    /**
+     * Removes all records.
+     */
+    public void clear() {
+        mSize = 0;
+        mBaseTime = -1;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public byte getKind(int index) {
+        return mKinds[index];
+    }
+
+    public int getCode(int index) {
+        return mCodes[index];
+    }
+
+    /**
+     * Get the time of a record relative to the first one.
+     *
+     * @param index record position
+     * @return time in milliseconds
+     */
+    public int getTime(int index) {
+        return mTimes[index];
+    }
+
+    public float getX(int index) {
+        return mXs[index];
+    }
+
+    public float getY(int index) {
+        return mYs[index];
+    }
+
+    /**
+     * Serializes the trace in its binary form. The stream is not closed.
+     *
+     * @param outputStream destination
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(mSize);
+        for (int i = 0; i < mSize; i++) {
+            out.writeByte(mKinds[i]);
+            out.writeByte(mCodes[i]);
+            out.writeInt(mTimes[i]);
+            out.writeFloat(mXs[i]);
+            out.writeFloat(mYs[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trace written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param inputStream source
+     * @return trace
+     * @throws IOException if the stream cannot be read, is not a trace or has unknown records
+     */
+    public static TouchTrace readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a touch trace");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported touch trace version " + version);
+        }
+        int size = in.readInt();
+        TouchTrace trace = new TouchTrace();
+        /* Times are already relative */
+        trace.mBaseTime = 0;
+        for (int i = 0; i < size; i++) {
+            byte kind = in.readByte();
+            byte code = in.readByte();
+            int time = in.readInt();
+            float x = in.readFloat();
+            float y = in.readFloat();
+            /* Records from another version would crash the replay instead */
+            if (kind < KIND_INTERCEPT || kind > KIND_ANIMATION) {
+                throw new IOException("Record " + i + ": unknown kind " + kind);
+            }
+            if (kind == KIND_ANIMATION
+                    && (code < 0 || code >= RippleDecoratorView.Triggers.values().length)) {
+                throw new IOException("Record " + i + ": unknown trigger " + code);
+            }
+            trace.append(kind, code, time, x, y);
+        }
+        return trace;
+    }
+}
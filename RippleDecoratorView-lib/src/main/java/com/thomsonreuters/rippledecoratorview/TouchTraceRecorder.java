@@ -0,0 +1,76 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+/**
+ * Records the touch events and animation starts of a {@link RippleDecoratorView} into a
+ * {@link TouchTrace}.
+ */
+public class TouchTraceRecorder implements RippleDecoratorView.OnTraceListener {
+    private final TouchTrace mTrace = new TouchTrace();
+
+    private RippleDecoratorView mView;
+
+    /**
+     * Starts recording a view. Replaces any trace listener already set on it.
+     *
+     * @param view view to record
+     */
+    public void start(RippleDecoratorView view) {
+        stop();
+        mView = view;
+        mView.setOnTraceListener(this);
+    }
+
+    /**
+     * Stops recording. Records are kept until {@link TouchTrace#clear()} is called.
+     */
+    public void stop() {
+        if (mView != null && mView.getOnTraceListener() == this) {
+            mView.setOnTraceListener(null);
+        }
+        mView = null;
+    }
+
+    /**
+     * Get the recorded trace.
+     *
+     * @return trace
+     */
+    public TouchTrace getTrace() {
+        return mTrace;
+    }
+
+    @Override
+    public void onTraceTouchEvent(MotionEvent event, boolean intercepted) {
+        mTrace.append(intercepted ? TouchTrace.KIND_INTERCEPT : TouchTrace.KIND_TOUCH,
+                event.getAction() & MotionEvent.ACTION_MASK, event.getEventTime(), event.getX(),
+                event.getY());
+    }
+
+    @Override
+    public void onTraceAnimationStart(RippleDecoratorView.Triggers trigger, float x, float y) {
+        mTrace.append(TouchTrace.KIND_ANIMATION, trigger.ordinal(), SystemClock.uptimeMillis(),
+                x, y);
+    }
+
+    @Override
+    public void onTraceInvalidate() {
+        /* Invalidations are a result of the replay, not part of the trace */
+    }
+}
@@ -0,0 +1,321 @@
+/* Copyright 2015 Thomson Reuters
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License. */
+
+package com.thomsonreuters.rippledecoratorview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+/**
+ * Feeds a {@link TouchTrace} back into a {@link RippleDecoratorView} on the timeline of the
+ * recording. Each event is posted to the looper of the view at its time rebased on the current
+ * uptime, so the tap, press and long press timeouts of the gesture detectors fire between events
+ * as they did when recording. Draw passes on an offscreen bitmap are pumped between events at the
+ * display frame rate, so animations run their frames. A replay takes as long as the recording.
+ */
+public class TouchTraceReplayer {
+    /** Interval between pumped draw passes */
+    private static final long FRAME_MILLIS = 16L;
+
+    /** Time replayed after the last event so the animations it started can end */
+    private static final long TAIL_MILLIS = 1000L;
+
+    /**
+     * Receives the report once a replay has ended.
+     */
+    public interface OnReplayListener {
+        /**
+         * Called on the thread of the view after the last event and the animations it started.
+         *
+         * @param report replay report
+         */
+        void onReplayFinished(Report report);
+    }
+
+    private final TouchTrace mTrace;
+
+    private final RippleDecoratorView mView;
+
+    private final OnReplayListener mOnReplayListener;
+
+    private final RippleDecoratorView.OnTraceListener mPreviousListener;
+
+    private final Report mReport = new Report();
+
+    private final Handler mHandler = new Handler();
+
+    private final Bitmap mBitmap;
+
+    private final Canvas mCanvas;
+
+    private long mBaseTime;
+
+    private long mDownTime;
+
+    private long mEndTime;
+
+    private int mNextRecord = 0;
+
+    private MotionEvent mInterceptedEvent;
+
+    private final Runnable mEventRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchDueRecords();
+        }
+    };
+
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pumpFrame();
+        }
+    };
+
+    private TouchTraceReplayer(TouchTrace trace, RippleDecoratorView view,
+            OnReplayListener onReplayListener) {
+        mTrace = trace;
+        mView = view;
+        mOnReplayListener = onReplayListener;
+        mPreviousListener = view.getOnTraceListener();
+        mBitmap = Bitmap.createBitmap(Math.max(1, view.getWidth()), Math.max(1,
+                view.getHeight()), Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    /**
+     * Starts replaying a trace into a view and returns right away. Must be called from the
+     * thread owning the view, which needs a looper that keeps running during the replay.
+     *
+     * @param trace trace to replay
+     * @param view view receiving the events
+     * @param onReplayListener receives the report when the replay ends
+     */
+    public static void replay(TouchTrace trace, RippleDecoratorView view,
+            OnReplayListener onReplayListener) {
+        new TouchTraceReplayer(trace, view, onReplayListener).start();
+    }
+
+    private void start() {
+        mView.setOnTraceListener(new RippleDecoratorView.OnTraceListener() {
+            @Override
+            public void onTraceTouchEvent(MotionEvent event, boolean intercepted) {
+            }
+
+            @Override
+            public void onTraceAnimationStart(RippleDecoratorView.Triggers trigger, float x,
+                    float y) {
+                mReport.mAnimationStarts[trigger.ordinal()]++;
+            }
+
+            @Override
+            public void onTraceInvalidate() {
+                mReport.mInvalidations++;
+            }
+        });
+        mBaseTime = SystemClock.uptimeMillis();
+        mDownTime = mBaseTime;
+        int lastTime = mTrace.size() == 0 ? 0 : mTrace.getTime(mTrace.size() - 1);
+        mEndTime = mBaseTime + lastTime + (long)mView.getRippleAnimationDuration() + TAIL_MILLIS;
+        mHandler.post(mEventRunnable);
+        mHandler.post(mFrameRunnable);
+    }
+
+    private void dispatchDueRecords() {
+        long now = SystemClock.uptimeMillis();
+        while (mNextRecord < mTrace.size() && mBaseTime + mTrace.getTime(mNextRecord) <= now) {
+            dispatchRecord(mNextRecord++);
+        }
+        if (mNextRecord < mTrace.size()) {
+            mHandler.postAtTime(mEventRunnable, mBaseTime + mTrace.getTime(mNextRecord));
+        }
+    }
+
+    private void dispatchRecord(int index) {
+        byte kind = mTrace.getKind(index);
+        if (kind == TouchTrace.KIND_ANIMATION) {
+            mReport.mRecordedAnimationStarts[mTrace.getCode(index)]++;
+            return;
+        }
+        int action = mTrace.getCode(index);
+        long eventTime = mBaseTime + mTrace.getTime(index);
+        if (action == MotionEvent.ACTION_DOWN) {
+            mDownTime = eventTime;
+        }
+        MotionEvent event;
+        if (kind == TouchTrace.KIND_TOUCH && mInterceptedEvent != null
+                && mInterceptedEvent.getEventTime() == eventTime
+                && mInterceptedEvent.getAction() == action) {
+            /* Recorded as one event reaching the view twice, replayed as the same object */
+            event = mInterceptedEvent;
+        } else {
+            event = MotionEvent.obtain(mDownTime, eventTime, action, mTrace.getX(index),
+                    mTrace.getY(index), 0);
+        }
+        recycleInterceptedEvent(event);
+        long startNanoTime = System.nanoTime();
+        if (kind == TouchTrace.KIND_INTERCEPT) {
+            mView.onInterceptTouchEvent(event);
+        } else {
+            mView.onTouchEvent(event);
+        }
+        long elapsedNanos = System.nanoTime() - startNanoTime;
+        if (kind == TouchTrace.KIND_INTERCEPT) {
+            mInterceptedEvent = event;
+        } else {
+            event.recycle();
+        }
+        mReport.mEvents++;
+        mReport.mTotalNanos += elapsedNanos;
+        mReport.mMaxNanos = Math.max(mReport.mMaxNanos, elapsedNanos);
+    }
+
+    private void recycleInterceptedEvent(MotionEvent reused) {
+        if (mInterceptedEvent != null && mInterceptedEvent != reused) {
+            mInterceptedEvent.recycle();
+        }
+        mInterceptedEvent = null;
+    }
+
+    /**
+     * A detached view is never drawn by the window, the replay draws it as the frames go.
+     */
+    private void pumpFrame() {
+        mView.draw(mCanvas);
+        mReport.mFrames++;
+        if (mNextRecord < mTrace.size() || SystemClock.uptimeMillis() < mEndTime) {
+            mHandler.postDelayed(mFrameRunnable, FRAME_MILLIS);
+            return;
+        }
+        mHandler.removeCallbacks(mEventRunnable);
+        recycleInterceptedEvent(null);
+        mView.setOnTraceListener(mPreviousListener);
+        mBitmap.recycle();
+        mOnReplayListener.onReplayFinished(mReport);
+    }
+
+    /**
+     * Result of a replay. Animation counts are indexed by trigger.
+     */
+    public static class Report {
+        private int mEvents;
+
+        private int mInvalidations;
+
+        private int mFrames;
+
+        private long mTotalNanos;
+
+        private long mMaxNanos;
+
+        private final int[] mAnimationStarts =
+                new int[RippleDecoratorView.Triggers.values().length];
+
+        private final int[] mRecordedAnimationStarts =
+                new int[RippleDecoratorView.Triggers.values().length];
+
+        /**
+         * Get the number of touch events replayed.
+         *
+         * @return number of events
+         */
+        public int getEvents() {
+            return mEvents;
+        }
+
+        /**
+         * Get the number of frames requested by the view during the replay.
+         *
+         * @return number of invalidations
+         */
+        public int getInvalidations() {
+            return mInvalidations;
+        }
+
+        /**
+         * Get the number of draw passes pumped during the replay.
+         *
+         * @return number of frames
+         */
+        public int getFrames() {
+            return mFrames;
+        }
+
+        /**
+         * Get the number of animations started during the replay by a trigger.
+         *
+         * @param trigger trigger
+         * @return number of animations
+         */
+        public int getAnimationStarts(RippleDecoratorView.Triggers trigger) {
+            return mAnimationStarts[trigger.ordinal()];
+        }
+
+        /**
+         * Get the number of animations started by a trigger when the trace was recorded.
+         *
+         * @param trigger trigger
+         * @return number of animations
+         */
+        public int getRecordedAnimationStarts(RippleDecoratorView.Triggers trigger) {
+            return mRecordedAnimationStarts[trigger.ordinal()];
+        }
+
+        /**
+         * Get the time spent processing all the events.
+         *
+         * @return time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        /**
+         * Get the time spent processing the most expensive event.
+         *
+         * @return time in nanoseconds
+         */
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        /**
+         * Get the average time spent processing an event.
+         *
+         * @return time in nanoseconds
+         */
+        public long getMeanNanos() {
+            return mEvents == 0 ? 0 : mTotalNanos / mEvents;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("events=").append(mEvents);
+            builder.append(" invalidations=").append(mInvalidations);
+            builder.append(" frames=").append(mFrames);
+            builder.append(" meanNanos=").append(getMeanNanos());
+            builder.append(" maxNanos=").append(mMaxNanos);
+            for (RippleDecoratorView.Triggers trigger : RippleDecoratorView.Triggers.values()) {
+                builder.append(' ').append(trigger.name()).append('=')
+                        .append(mAnimationStarts[trigger.ordinal()]).append('/')
+                        .append(mRecordedAnimationStarts[trigger.ordinal()]);
+            }
+            return builder.toString();
+        }
+    }
+}